@@ -1,4 +1,4 @@
-java -jar .\lib\antlr-4.13.1-complete.jar -package plp.enquanto.parser  .\src\plp\enquanto\parser\Enquanto.g4
-javac -cp .\lib\antlr-runtime-4.13.1.jar -d bin .\src\plp\enquanto\parser\*.java .\src\plp\enquanto\*.java
+java -jar .\lib\antlr-4.13.1-complete.jar -package plp.enquanto.parser -visitor -no-listener .\src\plp\enquanto\parser\Enquanto.g4
+javac -cp .\lib\antlr-runtime-4.13.1.jar -d bin .\src\plp\enquanto\parser\*.java .\src\plp\enquanto\*.java .\src\plp\enquanto\exato\*.java .\src\plp\enquanto\fechamento\*.java .\src\plp\enquanto\ir\*.java .\src\plp\enquanto\jvm\*.java .\src\plp\enquanto\vm\*.java
 copy .\lib\antlr-runtime-4.13.1.jar while.jar
 jar --update --file .\while.jar --main-class plp.enquanto.Principal -C bin plp
@@ -0,0 +1,68 @@
+package plp.enquanto;
+
+/*
+ * Mapa String -> int com endereçamento aberto (sondagem linear). Chaves e
+ * valores ficam em vetores paralelos, sem Integer nem Map.Entry. As chaves
+ * vindas do parser são internadas, então a comparação por referência
+ * resolve quase todas as buscas antes de chamar equals.
+ */
+public final class Ambiente {
+	private String[] chaves;
+	private int[] valores;
+	private int tamanho;
+
+	public Ambiente() {
+		chaves = new String[16];
+		valores = new int[16];
+	}
+
+	public int tamanho() {
+		return tamanho;
+	}
+
+	// Valor associado à chave; se ela ainda não existe, associa e devolve valor
+	public int pegueOuColoque(String chave, int valor) {
+		final int i = posicao(chave);
+		if (chaves[i] != null) {
+			return valores[i];
+		}
+		insira(i, chave, valor);
+		return valor;
+	}
+
+	// Posição da chave ou da vaga onde ela deveria estar
+	private int posicao(String chave) {
+		final int mascara = chaves.length - 1;
+		final int h = chave.hashCode();
+		int i = (h ^ (h >>> 16)) & mascara;
+		for (String c; (c = chaves[i]) != null; i = (i + 1) & mascara) {
+			if (c == chave || c.equals(chave)) {
+				return i;
+			}
+		}
+		return i;
+	}
+
+	private void insira(int i, String chave, int valor) {
+		chaves[i] = chave;
+		valores[i] = valor;
+		// Ocupação máxima de 1/2 mantém as sondagens curtas
+		if (++tamanho * 2 > chaves.length) {
+			redimensione();
+		}
+	}
+
+	private void redimensione() {
+		final String[] antigas = chaves;
+		final int[] antigos = valores;
+		chaves = new String[antigas.length * 2];
+		valores = new int[antigas.length * 2];
+		for (int j = 0; j < antigas.length; j++) {
+			if (antigas[j] != null) {
+				final int i = posicao(antigas[j]);
+				chaves[i] = antigas[j];
+				valores[i] = antigos[j];
+			}
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package plp.enquanto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import plp.enquanto.Linguagem.*;
+
+/*
+ * Consultas e reescritas sobre a árvore usadas pelas otimizações.
+ */
+final class Analise {
+	private Analise() {
+	}
+
+	// Slots que podem ser alterados pelo comando, incluindo a variável de cada para
+	static BitSet atribuidas(Comando comando) {
+		final BitSet slots = new BitSet();
+		atribuidas(comando, slots);
+		return slots;
+	}
+
+	private static void atribuidas(Comando comando, BitSet slots) {
+		if (comando instanceof Atribuicao a) {
+			for (int slot : a.getSlots()) {
+				slots.set(slot);
+			}
+		} else if (comando instanceof Bloco b) {
+			b.getComandos().forEach(c -> atribuidas(c, slots));
+		} else if (comando instanceof Se se) {
+			se.getRamos().forEach(c -> atribuidas(c, slots));
+			if (se.getSenao() != null) {
+				atribuidas(se.getSenao(), slots);
+			}
+		} else if (comando instanceof Enquanto e) {
+			atribuidas(e.getComando(), slots);
+		} else if (comando instanceof Repita r) {
+			atribuidas(r.getCorpo(), slots);
+		} else if (comando instanceof Para p) {
+			slots.set(p.getSlot());
+			atribuidas(p.getCorpo(), slots);
+		} else if (comando instanceof Escolha e) {
+			for (Comando c : e.getCasos()) {
+				atribuidas(c, slots);
+			}
+			if (e.getOutro() != null) {
+				atribuidas(e.getOutro(), slots);
+			}
+		}
+	}
+
+	// A expressão lê alguma das variáveis?
+	static boolean le(Expressao exp, BitSet slots) {
+		if (exp instanceof Id id) {
+			return slots.get(id.getSlot());
+		} else if (exp instanceof OpBin<?> op) {
+			return le((Expressao) op.getEsq(), slots) || le((Expressao) op.getDir(), slots);
+		}
+		return false;
+	}
+
+	// Slots lidos por alguma expressão ou condição dos comandos
+	static BitSet lidas(List<Comando> comandos) {
+		final BitSet slots = new BitSet();
+		comandos.forEach(c -> lidas(c, slots));
+		return slots;
+	}
+
+	private static void lidas(Comando comando, BitSet slots) {
+		if (comando instanceof Atribuicao a) {
+			a.getExps().forEach(e -> lidas(e, slots));
+		} else if (comando instanceof Bloco b) {
+			b.getComandos().forEach(c -> lidas(c, slots));
+		} else if (comando instanceof Se se) {
+			se.getCondicoes().forEach(c -> lidas(c, slots));
+			se.getRamos().forEach(c -> lidas(c, slots));
+			if (se.getSenao() != null) {
+				lidas(se.getSenao(), slots);
+			}
+		} else if (comando instanceof Enquanto e) {
+			lidas(e.getCondicao(), slots);
+			lidas(e.getComando(), slots);
+		} else if (comando instanceof Repita r) {
+			lidas(r.getVezes(), slots);
+			lidas(r.getCorpo(), slots);
+		} else if (comando instanceof Para p) {
+			lidas(p.getInicio(), slots);
+			lidas(p.getFim(), slots);
+			lidas(p.getCorpo(), slots);
+		} else if (comando instanceof Escolha e) {
+			lidas(e.getSeletor(), slots);
+			for (Comando c : e.getCasos()) {
+				lidas(c, slots);
+			}
+			if (e.getOutro() != null) {
+				lidas(e.getOutro(), slots);
+			}
+		} else if (comando instanceof ExibaExp e) {
+			lidas(e.getExp(), slots);
+		} else if (comando instanceof Escreva e) {
+			lidas(e.getExp(), slots);
+		}
+	}
+
+	private static void lidas(Bool b, BitSet slots) {
+		if (b instanceof NaoLogico n) {
+			lidas(n.getOperando(), slots);
+		} else if (b instanceof OpBin<?> op) {
+			if (op.getEsq() instanceof Bool esq) {
+				lidas(esq, slots);
+				lidas((Bool) op.getDir(), slots);
+			} else {
+				lidas((Expressao) op.getEsq(), slots);
+				lidas((Expressao) op.getDir(), slots);
+			}
+		}
+	}
+
+	private static void lidas(Expressao exp, BitSet slots) {
+		if (exp instanceof Id id) {
+			slots.set(id.getSlot());
+		} else if (exp instanceof OpBin<?> op) {
+			lidas((Expressao) op.getEsq(), slots);
+			lidas((Expressao) op.getDir(), slots);
+		}
+	}
+
+	// Pode ser calculada sem lançar exceção
+	static boolean seguro(Expressao exp) {
+		if (exp instanceof ExpDiv op) {
+			return op.getDir() instanceof Inteiro k && k.getValor() != 0 && seguro(op.getEsq());
+		} else if (exp instanceof OpBin<?> op) {
+			return seguro((Expressao) op.getEsq()) && seguro((Expressao) op.getDir());
+		}
+		return true;
+	}
+
+	static boolean seguro(Bool b) {
+		if (b instanceof NaoLogico n) {
+			return seguro(n.getOperando());
+		} else if (b instanceof OpBin<?> op) {
+			return op.getEsq() instanceof Bool esq
+					? seguro(esq) && seguro((Bool) op.getDir())
+					: seguro((Expressao) op.getEsq()) && seguro((Expressao) op.getDir());
+		}
+		return true;
+	}
+
+	/*
+	 * Reconstrói o comando aplicando f a cada expressão de nível mais alto
+	 * (atribuições, limites, seletores, operandos de relações). A própria
+	 * função decide se desce nas subexpressões.
+	 */
+	static Comando mapeie(Comando comando, UnaryOperator<Expressao> f) {
+		if (comando instanceof Atribuicao a) {
+			final List<Expressao> exps = new ArrayList<>();
+			for (Expressao e : a.getExps()) {
+				exps.add(f.apply(e));
+			}
+			return Fabrica.atribuicao(a.getSlots(), exps);
+		} else if (comando instanceof Bloco b) {
+			return new Bloco(mapeie(b.getComandos(), f));
+		} else if (comando instanceof Se se) {
+			final List<Bool> condicoes = new ArrayList<>();
+			for (Bool b : se.getCondicoes()) {
+				condicoes.add(mapeie(b, f));
+			}
+			final Comando senao = se.getSenao() == null ? null : mapeie(se.getSenao(), f);
+			return new Se(condicoes, mapeie(se.getRamos(), f), senao);
+		} else if (comando instanceof Enquanto e) {
+			return new Enquanto(mapeie(e.getCondicao(), f), mapeie(e.getComando(), f));
+		} else if (comando instanceof Repita r) {
+			return new Repita(f.apply(r.getVezes()), mapeie(r.getCorpo(), f));
+		} else if (comando instanceof Para p) {
+			return new Para(p.getSlot(), f.apply(p.getInicio()), f.apply(p.getFim()), mapeie(p.getCorpo(), f));
+		} else if (comando instanceof Escolha e) {
+			final Comando[] casos = new Comando[e.getCasos().length];
+			Arrays.setAll(casos, i -> mapeie(e.getCasos()[i], f));
+			final Comando outro = e.getOutro() == null ? null : mapeie(e.getOutro(), f);
+			return Fabrica.escolha(f.apply(e.getSeletor()), e.getChaves(), casos, outro);
+		} else if (comando instanceof ExibaExp e) {
+			return new ExibaExp(f.apply(e.getExp()));
+		} else if (comando instanceof Escreva e) {
+			return new Escreva(f.apply(e.getExp()));
+		}
+		return comando;
+	}
+
+	// A mesma operação aritmética de exp, com novos operandos
+	static Expressao reconstrua(Expressao exp, Expressao esq, Expressao dir) {
+		if (exp instanceof ExpSoma) {
+			return new ExpSoma(esq, dir);
+		} else if (exp instanceof ExpSub) {
+			return new ExpSub(esq, dir);
+		} else if (exp instanceof ExpMult) {
+			return Fabrica.multiplicacao(esq, dir);
+		} else if (exp instanceof ExpDiv) {
+			return Fabrica.divisao(esq, dir);
+		} else if (exp instanceof ExpPow) {
+			return Fabrica.potencia(esq, dir);
+		}
+		return exp;
+	}
+
+	static List<Comando> mapeie(List<Comando> comandos, UnaryOperator<Expressao> f) {
+		final List<Comando> novos = new ArrayList<>(comandos.size());
+		for (Comando c : comandos) {
+			novos.add(mapeie(c, f));
+		}
+		return novos;
+	}
+
+	static Bool mapeie(Bool b, UnaryOperator<Expressao> f) {
+		if (b instanceof NaoLogico n) {
+			return new NaoLogico(mapeie(n.getOperando(), f));
+		} else if (b instanceof ELogico e) {
+			return new ELogico(mapeie(e.getEsq(), f), mapeie(e.getDir(), f));
+		} else if (b instanceof OuLogico o) {
+			return new OuLogico(mapeie(o.getEsq(), f), mapeie(o.getDir(), f));
+		} else if (b instanceof XorLogico x) {
+			return new XorLogico(mapeie(x.getEsq(), f), mapeie(x.getDir(), f));
+		} else if (b instanceof OpBin<?> op) {
+			// Demais operações binárias sobre Bool são relações
+			@SuppressWarnings("unchecked")
+			final OpBin<Expressao> rel = (OpBin<Expressao>) op;
+			return Fabrica.relacao(Fabrica.operador(b), f.apply(rel.getEsq()), f.apply(rel.getDir()));
+		}
+		return b;
+	}
+}
@@ -0,0 +1,126 @@
+package plp.enquanto;
+
+import java.util.List;
+
+import plp.enquanto.Linguagem.*;
+
+import static plp.enquanto.Linguagem.memoria;
+
+/*
+ * Superinstruções para as atribuições mais comuns (x := e, x := y,
+ * x := k, x := x + k, s := s + e, a, b := b, a). Alteram a memória
+ * diretamente, sem vetor intermediário. Como estendem Atribuicao, os
+ * demais motores continuam a vê-las como atribuições comuns.
+ * Construídas por Fabrica.atribuicao.
+ */
+final class Atribuicoes {
+	private Atribuicoes() {
+	}
+
+	// x := e
+	static final class Simples extends Atribuicao {
+		private final int a;
+		private final Expressao exp;
+
+		Simples(int a, Expressao exp) {
+			super(new int[] { a }, List.of(exp));
+			this.a = a;
+			this.exp = exp;
+		}
+
+		@Override
+		public void execute() {
+			memoria.valores[a] = exp.getValor();
+		}
+	}
+
+	// x := y
+	static final class Copia extends Atribuicao {
+		private final int a;
+		private final int b;
+
+		Copia(int a, Id origem) {
+			super(new int[] { a }, List.of(origem));
+			this.a = a;
+			this.b = origem.getSlot();
+		}
+
+		@Override
+		public void execute() {
+			final int[] m = memoria.valores;
+			m[a] = m[b];
+		}
+	}
+
+	// x := k
+	static final class Constante extends Atribuicao {
+		private final int a;
+		private final int k;
+
+		Constante(int a, Inteiro valor) {
+			super(new int[] { a }, List.of(valor));
+			this.a = a;
+			this.k = valor.getValor();
+		}
+
+		@Override
+		public void execute() {
+			memoria.valores[a] = k;
+		}
+	}
+
+	// x := x + k, x := x - k
+	static final class Incremento extends Atribuicao {
+		private final int a;
+		private final int k;
+
+		Incremento(int a, Expressao exp, int k) {
+			super(new int[] { a }, List.of(exp));
+			this.a = a;
+			this.k = k;
+		}
+
+		@Override
+		public void execute() {
+			memoria.valores[a] += k;
+		}
+	}
+
+	// s := s + e; e não altera s, então a ordem de leitura não importa
+	static final class Acumulacao extends Atribuicao {
+		private final int a;
+		private final Expressao parcela;
+
+		Acumulacao(int a, Expressao exp, Expressao parcela) {
+			super(new int[] { a }, List.of(exp));
+			this.a = a;
+			this.parcela = parcela;
+		}
+
+		@Override
+		public void execute() {
+			final int valor = parcela.getValor();
+			memoria.valores[a] += valor;
+		}
+	}
+
+	// a, b := b, a
+	static final class Troca extends Atribuicao {
+		private final int a;
+		private final int b;
+
+		Troca(int[] slots, List<Expressao> exps) {
+			super(slots, exps);
+			this.a = slots[0];
+			this.b = slots[1];
+		}
+
+		@Override
+		public void execute() {
+			final int[] m = memoria.valores;
+			final int t = m[a];
+			m[a] = m[b];
+			m[b] = t;
+		}
+	}
+}
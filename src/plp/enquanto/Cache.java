@@ -0,0 +1,406 @@
+package plp.enquanto;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+import plp.enquanto.Linguagem.*;
+
+/*
+ * Cache em disco dos programas construídos, para não passar pelos
+ * analisadores quando o fonte não mudou. A chave é o SHA-256 do fonte junto
+ * com uma impressão digital do interpretador: os bytes das classes do
+ * lexer, do parser, de Regras, de Sintatico, de Linguagem, de Fabrica (e
+ * dos nós especializados que ela cria) e do próprio formato. Uma nova
+ * gramática ou uma mudança na árvore invalida as entradas antigas.
+ * Falhas de leitura ou gravação só fazem o programa ser construído de novo.
+ *
+ * Formato: a árvore em pré-ordem, cada nó com uma etiqueta seguida dos
+ * campos. Nós especializados (Atribuicoes, Comparacoes, Reducoes) são
+ * gravados pela forma geral e recriados por Fabrica.
+ */
+final class Cache {
+	private static final int MAGICO = 0x57484C31;
+
+	// Comandos
+	private static final int SKIP = 0;
+	private static final int ATRIBUICAO = 1;
+	private static final int BLOCO = 2;
+	private static final int SE = 3;
+	private static final int ENQUANTO = 4;
+	private static final int REPITA = 5;
+	private static final int PARA = 6;
+	private static final int ESCOLHA = 7;
+	private static final int EXIBA = 8;
+	private static final int EXIBA_EXP = 9;
+	private static final int ESCREVA = 10;
+
+	// Expressões
+	private static final int INTEIRO = 0;
+	private static final int ID = 1;
+	private static final int LEIA = 2;
+	private static final int SOMA = 3;
+	private static final int SUB = 4;
+	private static final int MULT = 5;
+	private static final int DIV = 6;
+	private static final int POW = 7;
+
+	// Condições
+	private static final int BOOLEANO = 0;
+	private static final int NAO = 1;
+	private static final int E = 2;
+	private static final int OU = 3;
+	private static final int XOR = 4;
+	private static final int RELACAO = 5;
+
+	private final Path diretorio;
+
+	Cache(Path diretorio) {
+		this.diretorio = diretorio;
+	}
+
+	// $WHILE_CACHE ou ~/.cache/while
+	static Cache padrao() {
+		final String variavel = System.getenv("WHILE_CACHE");
+		if (variavel != null && !variavel.isBlank()) {
+			return new Cache(Path.of(variavel));
+		}
+		return new Cache(Path.of(System.getProperty("user.home"), ".cache", "while"));
+	}
+
+	// Programa guardado para este fonte, ou null
+	Programa leia(ByteBuffer fonte) {
+		final Path arquivo = arquivo(fonte);
+		if (arquivo == null || !Files.isRegularFile(arquivo)) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+			if (in.readInt() != MAGICO) {
+				return null;
+			}
+			final int variaveis = in.readInt();
+			return new Programa(comandos(in), variaveis);
+		} catch (IOException | RuntimeException e) {
+			// Entrada truncada ou corrompida
+			return null;
+		}
+	}
+
+	void grave(ByteBuffer fonte, Programa programa) {
+		final Path arquivo = arquivo(fonte);
+		if (arquivo == null) {
+			return;
+		}
+		try {
+			Files.createDirectories(diretorio);
+			// Escrita em um temporário e troca atômica: outra execução nunca lê uma entrada pela metade
+			final Path temporario = Files.createTempFile(diretorio, "while", ".tmp");
+			try {
+				Files.write(temporario, codifique(programa));
+				Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temporario);
+			}
+		} catch (IOException | RuntimeException e) {
+			// Sem cache: o programa é construído de novo na próxima vez
+		}
+	}
+
+	/*
+	 * Forma canônica do programa, a mesma gravada no cache. Também é usada
+	 * por Conformidade para comparar as árvores dos dois analisadores.
+	 */
+	static byte[] codifique(Programa programa) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(MAGICO);
+			out.writeInt(programa.getVariaveis());
+			comandos(programa.getComandos(), out);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private Path arquivo(ByteBuffer fonte) {
+		try {
+			final MessageDigest sha = MessageDigest.getInstance("SHA-256");
+			sha.update(impressaoDigital());
+			sha.update(fonte.duplicate());
+			return diretorio.resolve(HexFormat.of().formatHex(sha.digest()) + ".bin");
+		} catch (NoSuchAlgorithmException | IOException e) {
+			return null;
+		}
+	}
+
+	/*
+	 * SHA-256 dos .class que determinam a árvore construída. Lê só os
+	 * bytes: o parser não é inicializado e a ATN não é desserializada.
+	 */
+	private static byte[] impressaoDigital() throws NoSuchAlgorithmException, IOException {
+		final List<Class<?>> classes = new ArrayList<>();
+		// As reescritas de Fabrica ficam gravadas como nós comuns
+		for (Class<?> c : List.of(Linguagem.class, Reducoes.class, Comparacoes.class, Atribuicoes.class)) {
+			final List<Class<?>> nos = new ArrayList<>(List.of(c.getDeclaredClasses()));
+			nos.sort(Comparator.comparing(Class::getName));
+			classes.addAll(nos);
+			classes.add(c);
+		}
+		classes.add(Fabrica.class);
+		classes.add(Regras.class);
+		classes.add(Lexico.class);
+		classes.add(Sintatico.class);
+		classes.add(Cache.class);
+		final MessageDigest sha = MessageDigest.getInstance("SHA-256");
+		for (Class<?> c : classes) {
+			sha.update(bytes(c.getName()));
+		}
+		sha.update(bytes("plp.enquanto.parser.EnquantoLexer"));
+		sha.update(bytes("plp.enquanto.parser.EnquantoParser"));
+		return sha.digest();
+	}
+
+	private static byte[] bytes(String classe) throws IOException {
+		try (InputStream in = Cache.class.getClassLoader().getResourceAsStream(classe.replace('.', '/') + ".class")) {
+			if (in == null) {
+				throw new IOException("Classe não encontrada: " + classe);
+			}
+			return in.readAllBytes();
+		}
+	}
+
+	/*
+	 * Gravação
+	 */
+	private static void comandos(List<Comando> comandos, DataOutputStream out) throws IOException {
+		out.writeInt(comandos.size());
+		for (Comando c : comandos) {
+			comando(c, out);
+		}
+	}
+
+	private static void comando(Comando comando, DataOutputStream out) throws IOException {
+		if (comando instanceof Atribuicao a) {
+			out.writeByte(ATRIBUICAO);
+			out.writeInt(a.getSlots().length);
+			for (int slot : a.getSlots()) {
+				out.writeInt(slot);
+			}
+			out.writeInt(a.getExps().size());
+			for (Expressao e : a.getExps()) {
+				expressao(e, out);
+			}
+		} else if (comando instanceof Bloco b) {
+			out.writeByte(BLOCO);
+			comandos(b.getComandos(), out);
+		} else if (comando instanceof Se se) {
+			out.writeByte(SE);
+			out.writeInt(se.getCondicoes().size());
+			for (int i = 0; i < se.getCondicoes().size(); i++) {
+				condicao(se.getCondicoes().get(i), out);
+				comando(se.getRamos().get(i), out);
+			}
+			opcional(se.getSenao(), out);
+		} else if (comando instanceof Enquanto e) {
+			out.writeByte(ENQUANTO);
+			condicao(e.getCondicao(), out);
+			comando(e.getComando(), out);
+		} else if (comando instanceof Repita r) {
+			out.writeByte(REPITA);
+			expressao(r.getVezes(), out);
+			comando(r.getCorpo(), out);
+		} else if (comando instanceof Para p) {
+			out.writeByte(PARA);
+			out.writeInt(p.getSlot());
+			expressao(p.getInicio(), out);
+			expressao(p.getFim(), out);
+			comando(p.getCorpo(), out);
+		} else if (comando instanceof Escolha e) {
+			out.writeByte(ESCOLHA);
+			expressao(e.getSeletor(), out);
+			out.writeInt(e.getChaves().length);
+			for (int i = 0; i < e.getChaves().length; i++) {
+				out.writeInt(e.getChaves()[i]);
+				comando(e.getCasos()[i], out);
+			}
+			opcional(e.getOutro(), out);
+		} else if (comando instanceof Exiba e) {
+			out.writeByte(EXIBA);
+			final byte[] texto = e.getTexto().getBytes(StandardCharsets.UTF_8);
+			out.writeInt(texto.length);
+			out.write(texto);
+		} else if (comando instanceof ExibaExp e) {
+			out.writeByte(EXIBA_EXP);
+			expressao(e.getExp(), out);
+		} else if (comando instanceof Escreva e) {
+			out.writeByte(ESCREVA);
+			expressao(e.getExp(), out);
+		} else if (comando instanceof Skip) {
+			out.writeByte(SKIP);
+		} else {
+			throw new IllegalArgumentException("Comando não suportado: " + comando.getClass().getSimpleName());
+		}
+	}
+
+	private static void opcional(Comando comando, DataOutputStream out) throws IOException {
+		out.writeBoolean(comando != null);
+		if (comando != null) {
+			comando(comando, out);
+		}
+	}
+
+	private static void expressao(Expressao exp, DataOutputStream out) throws IOException {
+		if (exp instanceof Inteiro i) {
+			out.writeByte(INTEIRO);
+			out.writeInt(i.getValor());
+			return;
+		} else if (exp instanceof Id id) {
+			out.writeByte(ID);
+			out.writeInt(id.getSlot());
+			return;
+		} else if (exp instanceof Leia) {
+			out.writeByte(LEIA);
+			return;
+		} else if (exp instanceof ExpSoma) {
+			out.writeByte(SOMA);
+		} else if (exp instanceof ExpSub) {
+			out.writeByte(SUB);
+		} else if (exp instanceof ExpMult) {
+			out.writeByte(MULT);
+		} else if (exp instanceof ExpDiv) {
+			out.writeByte(DIV);
+		} else if (exp instanceof ExpPow) {
+			out.writeByte(POW);
+		} else {
+			throw new IllegalArgumentException("Expressão não suportada: " + exp.getClass().getSimpleName());
+		}
+		final OpBin<?> op = (OpBin<?>) exp;
+		expressao((Expressao) op.getEsq(), out);
+		expressao((Expressao) op.getDir(), out);
+	}
+
+	private static void condicao(Bool b, DataOutputStream out) throws IOException {
+		if (b instanceof Booleano v) {
+			out.writeByte(BOOLEANO);
+			out.writeBoolean(v.getValor());
+		} else if (b instanceof NaoLogico n) {
+			out.writeByte(NAO);
+			condicao(n.getOperando(), out);
+		} else if (b instanceof ELogico || b instanceof OuLogico || b instanceof XorLogico) {
+			out.writeByte(b instanceof ELogico ? E : b instanceof OuLogico ? OU : XOR);
+			final OpBin<?> op = (OpBin<?>) b;
+			condicao((Bool) op.getEsq(), out);
+			condicao((Bool) op.getDir(), out);
+		} else if (b instanceof OpBin<?> op) {
+			out.writeByte(RELACAO);
+			out.writeUTF(Fabrica.operador(b));
+			expressao((Expressao) op.getEsq(), out);
+			expressao((Expressao) op.getDir(), out);
+		} else {
+			throw new IllegalArgumentException("Condição não suportada: " + b.getClass().getSimpleName());
+		}
+	}
+
+	/*
+	 * Leitura
+	 */
+	private static List<Comando> comandos(DataInputStream in) throws IOException {
+		final int n = in.readInt();
+		final List<Comando> comandos = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			comandos.add(comando(in));
+		}
+		return comandos;
+	}
+
+	private static Comando comando(DataInputStream in) throws IOException {
+		return switch (in.readByte()) {
+			case SKIP -> new Skip();
+			case ATRIBUICAO -> {
+				final int[] slots = new int[in.readInt()];
+				for (int i = 0; i < slots.length; i++) {
+					slots[i] = in.readInt();
+				}
+				final int n = in.readInt();
+				final List<Expressao> exps = new ArrayList<>(n);
+				for (int i = 0; i < n; i++) {
+					exps.add(expressao(in));
+				}
+				yield Fabrica.atribuicao(slots, exps);
+			}
+			case BLOCO -> new Bloco(comandos(in));
+			case SE -> {
+				final int n = in.readInt();
+				final List<Bool> condicoes = new ArrayList<>(n);
+				final List<Comando> ramos = new ArrayList<>(n);
+				for (int i = 0; i < n; i++) {
+					condicoes.add(condicao(in));
+					ramos.add(comando(in));
+				}
+				yield new Se(condicoes, ramos, opcional(in));
+			}
+			case ENQUANTO -> new Enquanto(condicao(in), comando(in));
+			case REPITA -> new Repita(expressao(in), comando(in));
+			case PARA -> new Para(in.readInt(), expressao(in), expressao(in), comando(in));
+			case ESCOLHA -> {
+				final Expressao seletor = expressao(in);
+				final int[] chaves = new int[in.readInt()];
+				final Comando[] casos = new Comando[chaves.length];
+				for (int i = 0; i < chaves.length; i++) {
+					chaves[i] = in.readInt();
+					casos[i] = comando(in);
+				}
+				yield Fabrica.escolha(seletor, chaves, casos, opcional(in));
+			}
+			case EXIBA -> new Exiba(new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8));
+			case EXIBA_EXP -> new ExibaExp(expressao(in));
+			case ESCREVA -> new Escreva(expressao(in));
+			default -> throw new IOException("Comando inválido no cache");
+		};
+	}
+
+	private static Comando opcional(DataInputStream in) throws IOException {
+		return in.readBoolean() ? comando(in) : null;
+	}
+
+	private static Expressao expressao(DataInputStream in) throws IOException {
+		return switch (in.readByte()) {
+			case INTEIRO -> new Inteiro(in.readInt());
+			case ID -> new Id(in.readInt());
+			case LEIA -> new Leia();
+			case SOMA -> new ExpSoma(expressao(in), expressao(in));
+			case SUB -> new ExpSub(expressao(in), expressao(in));
+			case MULT -> Fabrica.multiplicacao(expressao(in), expressao(in));
+			case DIV -> Fabrica.divisao(expressao(in), expressao(in));
+			case POW -> Fabrica.potencia(expressao(in), expressao(in));
+			default -> throw new IOException("Expressão inválida no cache");
+		};
+	}
+
+	private static Bool condicao(DataInputStream in) throws IOException {
+		return switch (in.readByte()) {
+			case BOOLEANO -> new Booleano(in.readBoolean());
+			case NAO -> new NaoLogico(condicao(in));
+			case E -> new ELogico(condicao(in), condicao(in));
+			case OU -> new OuLogico(condicao(in), condicao(in));
+			case XOR -> new XorLogico(condicao(in), condicao(in));
+			case RELACAO -> Fabrica.relacao(in.readUTF(), expressao(in), expressao(in));
+			default -> throw new IOException("Condição inválida no cache");
+		};
+	}
+}
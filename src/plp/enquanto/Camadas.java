@@ -0,0 +1,196 @@
+package plp.enquanto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import plp.enquanto.Linguagem.*;
+import plp.enquanto.jvm.Compilador;
+
+import static plp.enquanto.Linguagem.memoria;
+
+/*
+ * Execução em camadas: o programa começa no interpretador da árvore e cada
+ * laço conta suas voltas. Quando um laço passa de LIMIAR voltas ele é
+ * compilado para bytecode (plp.enquanto.jvm) e a execução continua no
+ * código compilado a partir da volta seguinte. As próximas execuções do
+ * mesmo laço já começam compiladas. Programas curtos nunca pagam o custo
+ * da compilação.
+ */
+public final class Camadas {
+	static final int LIMIAR = 10_000;
+
+	private int variaveis;
+
+	private Camadas(int variaveis) {
+		this.variaveis = variaveis;
+	}
+
+	public static Comando prepare(Programa programa) {
+		final Camadas camadas = new Camadas(programa.getVariaveis());
+		final List<Comando> comandos = camadas.comandos(programa.getComandos());
+		return new Programa(comandos, camadas.variaveis)::execute;
+	}
+
+	private List<Comando> comandos(List<Comando> comandos) {
+		final List<Comando> novos = new ArrayList<>(comandos.size());
+		for (Comando c : comandos) {
+			novos.add(comando(c));
+		}
+		return novos;
+	}
+
+	private Comando comando(Comando comando) {
+		if (comando instanceof Bloco b) {
+			return new Bloco(comandos(b.getComandos()));
+		} else if (comando instanceof Se se) {
+			final Comando senao = se.getSenao() == null ? null : comando(se.getSenao());
+			return new Se(se.getCondicoes(), comandos(se.getRamos()), senao);
+		} else if (comando instanceof Escolha e) {
+			final Comando[] casos = new Comando[e.getCasos().length];
+			Arrays.setAll(casos, i -> comando(e.getCasos()[i]));
+			final Comando outro = e.getOutro() == null ? null : comando(e.getOutro());
+			return Fabrica.escolha(e.getSeletor(), e.getChaves(), casos, outro);
+		} else if (comando instanceof Enquanto e) {
+			return new LacoEnquanto(e, comando(e.getComando()));
+		} else if (comando instanceof Repita r) {
+			return new LacoRepita(r, comando(r.getCorpo()), variaveis++);
+		} else if (comando instanceof Para p) {
+			return new LacoPara(p, comando(p.getCorpo()), variaveis++);
+		}
+		return comando;
+	}
+
+	/*
+	 * Laço interpretado que conta voltas. O laço compilado é a forma original
+	 * (sem contadores); para e repita recebem o ponto de partida em um slot
+	 * próprio, preenchido antes de entrar no código compilado.
+	 */
+	private abstract class Laco implements Comando {
+		private int voltas;
+		protected Comando compilado;
+
+		// Conta uma volta; devolve verdadeiro se o laço acabou de ser compilado
+		protected boolean promova() {
+			if (++voltas != LIMIAR) {
+				return false;
+			}
+			try {
+				compilado = Compilador.compile(new Programa(List.of(compilavel()), variaveis));
+				return true;
+			} catch (IllegalArgumentException e) {
+				// Grande demais para um método: continua interpretado
+				return false;
+			}
+		}
+
+		protected abstract Comando compilavel();
+	}
+
+	private final class LacoEnquanto extends Laco {
+		private final Enquanto original;
+		private final Comando corpo;
+
+		LacoEnquanto(Enquanto original, Comando corpo) {
+			this.original = original;
+			this.corpo = corpo;
+		}
+
+		@Override
+		protected Comando compilavel() {
+			return original;
+		}
+
+		@Override
+		public void execute() {
+			if (compilado == null) {
+				final Bool condicao = original.getCondicao();
+				while (condicao.getValor()) {
+					corpo.execute();
+					if (promova()) {
+						break;
+					}
+				}
+				if (compilado == null) {
+					return;
+				}
+			}
+			compilado.execute();
+		}
+	}
+
+	private final class LacoRepita extends Laco {
+		private final Repita original;
+		private final Comando corpo;
+		private final int restantes;
+
+		LacoRepita(Repita original, Comando corpo, int restantes) {
+			this.original = original;
+			this.corpo = corpo;
+			this.restantes = restantes;
+		}
+
+		@Override
+		protected Comando compilavel() {
+			return new Repita(new Id(restantes), original.getCorpo());
+		}
+
+		@Override
+		public void execute() {
+			int n = original.getVezes().getValor();
+			if (compilado == null) {
+				for (int i = 0; i < n; i++) {
+					corpo.execute();
+					if (promova()) {
+						n -= i + 1;
+						break;
+					}
+				}
+				if (compilado == null) {
+					return;
+				}
+			}
+			memoria.valores[restantes] = n;
+			compilado.execute();
+		}
+	}
+
+	private final class LacoPara extends Laco {
+		private final Para original;
+		private final Comando corpo;
+		private final int contador;
+
+		LacoPara(Para original, Comando corpo, int contador) {
+			this.original = original;
+			this.corpo = corpo;
+			this.contador = contador;
+		}
+
+		@Override
+		protected Comando compilavel() {
+			return new Para(original.getSlot(), new Id(contador), original.getFim(), original.getCorpo());
+		}
+
+		@Override
+		public void execute() {
+			int i = original.getInicio().getValor();
+			if (compilado == null) {
+				final Expressao fim = original.getFim();
+				final int slot = original.getSlot();
+				for (; i <= fim.getValor(); i++) {
+					memoria.valores[slot] = i;
+					corpo.execute();
+					if (promova()) {
+						i++;
+						break;
+					}
+				}
+				if (compilado == null) {
+					return;
+				}
+			}
+			memoria.valores[contador] = i;
+			compilado.execute();
+		}
+	}
+}
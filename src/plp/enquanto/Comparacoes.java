@@ -0,0 +1,311 @@
+package plp.enquanto;
+
+import plp.enquanto.Linguagem.*;
+
+import static plp.enquanto.Linguagem.memoria;
+
+/*
+ * Relações especializadas pela forma dos operandos (variável e constante,
+ * duas variáveis, constante e variável). O teste é feito direto sobre a
+ * memória, sem chamar os nós dos operandos. Como estendem as relações de
+ * Linguagem, os demais motores continuam a vê-las como ExpMaior, ExpIgual...
+ * Construídas por Fabrica.relacao.
+ */
+final class Comparacoes {
+	private Comparacoes() {
+	}
+
+	static final class IgualVarConst extends ExpIgual {
+		private final int a;
+		private final int k;
+
+		IgualVarConst(Id esq, Inteiro dir) {
+			super(esq, dir);
+			a = esq.getSlot();
+			k = dir.getValor();
+		}
+
+		@Override
+		public boolean getValor() {
+			return memoria.valores[a] == k;
+		}
+	}
+
+	static final class IgualVarVar extends ExpIgual {
+		private final int a;
+		private final int b;
+
+		IgualVarVar(Id esq, Id dir) {
+			super(esq, dir);
+			a = esq.getSlot();
+			b = dir.getSlot();
+		}
+
+		@Override
+		public boolean getValor() {
+			final int[] m = memoria.valores;
+			return m[a] == m[b];
+		}
+	}
+
+	static final class IgualConstVar extends ExpIgual {
+		private final int k;
+		private final int b;
+
+		IgualConstVar(Inteiro esq, Id dir) {
+			super(esq, dir);
+			k = esq.getValor();
+			b = dir.getSlot();
+		}
+
+		@Override
+		public boolean getValor() {
+			return k == memoria.valores[b];
+		}
+	}
+
+	static final class DiferenteVarConst extends ExpDiferente {
+		private final int a;
+		private final int k;
+
+		DiferenteVarConst(Id esq, Inteiro dir) {
+			super(esq, dir);
+			a = esq.getSlot();
+			k = dir.getValor();
+		}
+
+		@Override
+		public boolean getValor() {
+			return memoria.valores[a] != k;
+		}
+	}
+
+	static final class DiferenteVarVar extends ExpDiferente {
+		private final int a;
+		private final int b;
+
+		DiferenteVarVar(Id esq, Id dir) {
+			super(esq, dir);
+			a = esq.getSlot();
+			b = dir.getSlot();
+		}
+
+		@Override
+		public boolean getValor() {
+			final int[] m = memoria.valores;
+			return m[a] != m[b];
+		}
+	}
+
+	static final class DiferenteConstVar extends ExpDiferente {
+		private final int k;
+		private final int b;
+
+		DiferenteConstVar(Inteiro esq, Id dir) {
+			super(esq, dir);
+			k = esq.getValor();
+			b = dir.getSlot();
+		}
+
+		@Override
+		public boolean getValor() {
+			return k != memoria.valores[b];
+		}
+	}
+
+	static final class MenorVarConst extends ExpMenor {
+		private final int a;
+		private final int k;
+
+		MenorVarConst(Id esq, Inteiro dir) {
+			super(esq, dir);
+			a = esq.getSlot();
+			k = dir.getValor();
+		}
+
+		@Override
+		public boolean getValor() {
+			return memoria.valores[a] < k;
+		}
+	}
+
+	static final class MenorVarVar extends ExpMenor {
+		private final int a;
+		private final int b;
+
+		MenorVarVar(Id esq, Id dir) {
+			super(esq, dir);
+			a = esq.getSlot();
+			b = dir.getSlot();
+		}
+
+		@Override
+		public boolean getValor() {
+			final int[] m = memoria.valores;
+			return m[a] < m[b];
+		}
+	}
+
+	static final class MenorConstVar extends ExpMenor {
+		private final int k;
+		private final int b;
+
+		MenorConstVar(Inteiro esq, Id dir) {
+			super(esq, dir);
+			k = esq.getValor();
+			b = dir.getSlot();
+		}
+
+		@Override
+		public boolean getValor() {
+			return k < memoria.valores[b];
+		}
+	}
+
+	static final class MenorIgualVarConst extends ExpMenorIgual {
+		private final int a;
+		private final int k;
+
+		MenorIgualVarConst(Id esq, Inteiro dir) {
+			super(esq, dir);
+			a = esq.getSlot();
+			k = dir.getValor();
+		}
+
+		@Override
+		public boolean getValor() {
+			return memoria.valores[a] <= k;
+		}
+	}
+
+	static final class MenorIgualVarVar extends ExpMenorIgual {
+		private final int a;
+		private final int b;
+
+		MenorIgualVarVar(Id esq, Id dir) {
+			super(esq, dir);
+			a = esq.getSlot();
+			b = dir.getSlot();
+		}
+
+		@Override
+		public boolean getValor() {
+			final int[] m = memoria.valores;
+			return m[a] <= m[b];
+		}
+	}
+
+	static final class MenorIgualConstVar extends ExpMenorIgual {
+		private final int k;
+		private final int b;
+
+		MenorIgualConstVar(Inteiro esq, Id dir) {
+			super(esq, dir);
+			k = esq.getValor();
+			b = dir.getSlot();
+		}
+
+		@Override
+		public boolean getValor() {
+			return k <= memoria.valores[b];
+		}
+	}
+
+	static final class MaiorVarConst extends ExpMaior {
+		private final int a;
+		private final int k;
+
+		MaiorVarConst(Id esq, Inteiro dir) {
+			super(esq, dir);
+			a = esq.getSlot();
+			k = dir.getValor();
+		}
+
+		@Override
+		public boolean getValor() {
+			return memoria.valores[a] > k;
+		}
+	}
+
+	static final class MaiorVarVar extends ExpMaior {
+		private final int a;
+		private final int b;
+
+		MaiorVarVar(Id esq, Id dir) {
+			super(esq, dir);
+			a = esq.getSlot();
+			b = dir.getSlot();
+		}
+
+		@Override
+		public boolean getValor() {
+			final int[] m = memoria.valores;
+			return m[a] > m[b];
+		}
+	}
+
+	static final class MaiorConstVar extends ExpMaior {
+		private final int k;
+		private final int b;
+
+		MaiorConstVar(Inteiro esq, Id dir) {
+			super(esq, dir);
+			k = esq.getValor();
+			b = dir.getSlot();
+		}
+
+		@Override
+		public boolean getValor() {
+			return k > memoria.valores[b];
+		}
+	}
+
+	static final class MaiorIgualVarConst extends ExpMaiorIgual {
+		private final int a;
+		private final int k;
+
+		MaiorIgualVarConst(Id esq, Inteiro dir) {
+			super(esq, dir);
+			a = esq.getSlot();
+			k = dir.getValor();
+		}
+
+		@Override
+		public boolean getValor() {
+			return memoria.valores[a] >= k;
+		}
+	}
+
+	static final class MaiorIgualVarVar extends ExpMaiorIgual {
+		private final int a;
+		private final int b;
+
+		MaiorIgualVarVar(Id esq, Id dir) {
+			super(esq, dir);
+			a = esq.getSlot();
+			b = dir.getSlot();
+		}
+
+		@Override
+		public boolean getValor() {
+			final int[] m = memoria.valores;
+			return m[a] >= m[b];
+		}
+	}
+
+	static final class MaiorIgualConstVar extends ExpMaiorIgual {
+		private final int k;
+		private final int b;
+
+		MaiorIgualConstVar(Inteiro esq, Id dir) {
+			super(esq, dir);
+			k = esq.getValor();
+			b = dir.getSlot();
+		}
+
+		@Override
+		public boolean getValor() {
+			return k >= memoria.valores[b];
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package plp.enquanto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+import plp.enquanto.Linguagem.Programa;
+
+/*
+ * Confere o analisador escrito à mão contra o ANTLR, que é a referência:
+ * para cada arquivo as duas árvores são comparadas pela forma canônica do
+ * cache. Programas com erro de sintaxe devem ser recusados por Sintatico.
+ *
+ *     java plp.enquanto.Conformidade programa.while ...
+ */
+public class Conformidade {
+	public static void main(final String... args) throws IOException {
+		Principal.naPilhaGrande(() -> confira(args));
+	}
+
+	private static void confira(final String... args) throws IOException {
+		int divergencias = 0;
+		for (String arq : args) {
+			final byte[] fonte = Files.readAllBytes(Path.of(arq));
+			final String resultado = compare(fonte);
+			if (!resultado.startsWith("ok")) {
+				divergencias++;
+			}
+			System.out.println(arq + ": " + resultado);
+		}
+		System.out.println(divergencias == 0 ? "Nenhuma divergência." : divergencias + " divergência(s).");
+		System.exit(divergencias == 0 ? 0 : 1);
+	}
+
+	private static String compare(byte[] fonte) throws IOException {
+		final boolean[] errou = { false };
+		Programa referencia;
+		try {
+			referencia = Principal.construa(Principal.parse(CharStreams.fromString(
+					new String(fonte, StandardCharsets.UTF_8)), new BaseErrorListener() {
+						@Override
+						public void syntaxError(Recognizer<?, ?> recognizer, Object simbolo, int linha, int coluna,
+								String mensagem, RecognitionException e) {
+							errou[0] = true;
+						}
+					}));
+		} catch (RuntimeException e) {
+			// Regras não constrói árvores com erro
+			errou[0] = true;
+			referencia = null;
+		}
+		Programa programa;
+		try {
+			programa = Sintatico.analise(ByteBuffer.wrap(fonte));
+		} catch (Sintatico.Erro e) {
+			programa = null;
+		}
+		if (errou[0]) {
+			return programa == null ? "ok (erro de sintaxe nos dois)" : "aceito por Sintatico, com erro no ANTLR";
+		}
+		if (programa == null) {
+			return "recusado por Sintatico";
+		}
+		return Arrays.equals(Cache.codifique(referencia), Cache.codifique(programa)) ? "ok" : "árvores diferentes";
+	}
+}
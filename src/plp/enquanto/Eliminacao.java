@@ -0,0 +1,147 @@
+package plp.enquanto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import plp.enquanto.Linguagem.*;
+
+/*
+ * Remove código morto: ramos de se com condição constante (um ramo
+ * verdadeiro vira o senao e descarta os seguintes), enquanto falso,
+ * repita com zero vezes ou menos, para com limites constantes vazios,
+ * escolha com seletor constante, skip dentro de blocos e atribuições a
+ * variáveis que nunca são lidas. Atribuições só são removidas se suas
+ * expressões não têm leia nem podem falhar; como uma remoção pode deixar
+ * outra variável sem leitura, a passada se repete até estabilizar.
+ */
+public final class Eliminacao {
+	private static final Skip SKIP = new Skip();
+
+	// Slots lidos pelo programa; null preserva todas as atribuições
+	private final BitSet lidas;
+	private boolean removeu;
+
+	private Eliminacao(BitSet lidas) {
+		this.lidas = lidas;
+	}
+
+	/*
+	 * atribuicoes = false mantém as atribuições, para quando outro
+	 * programa ainda pode ler as variáveis (modo interativo).
+	 */
+	public static Programa elimine(Programa programa, boolean atribuicoes) {
+		List<Comando> comandos = programa.getComandos();
+		Eliminacao eliminacao;
+		do {
+			eliminacao = new Eliminacao(atribuicoes ? Analise.lidas(comandos) : null);
+			comandos = eliminacao.comandos(comandos);
+		} while (eliminacao.removeu);
+		return new Programa(comandos, programa.getVariaveis());
+	}
+
+	private List<Comando> comandos(List<Comando> comandos) {
+		final List<Comando> novos = new ArrayList<>(comandos.size());
+		for (Comando c : comandos) {
+			final Comando novo = comando(c);
+			if (!(novo instanceof Skip)) {
+				novos.add(novo);
+			}
+		}
+		return novos;
+	}
+
+	private Comando comando(Comando comando) {
+		if (comando instanceof Atribuicao a) {
+			return morta(a) ? SKIP : a;
+		} else if (comando instanceof Bloco b) {
+			final List<Comando> comandos = comandos(b.getComandos());
+			if (comandos.isEmpty()) {
+				return SKIP;
+			}
+			return comandos.size() == 1 ? comandos.get(0) : new Bloco(comandos);
+		} else if (comando instanceof Se se) {
+			return se(se);
+		} else if (comando instanceof Enquanto e) {
+			if (e.getCondicao() instanceof Booleano v && !v.getValor()) {
+				return SKIP;
+			}
+			return new Enquanto(e.getCondicao(), comando(e.getComando()));
+		} else if (comando instanceof Repita r) {
+			if (r.getVezes() instanceof Inteiro k && k.getValor() <= 0) {
+				return SKIP;
+			}
+			return new Repita(r.getVezes(), comando(r.getCorpo()));
+		} else if (comando instanceof Para p) {
+			if (p.getInicio() instanceof Inteiro i && p.getFim() instanceof Inteiro f && i.getValor() > f.getValor()) {
+				return SKIP;
+			}
+			return new Para(p.getSlot(), p.getInicio(), p.getFim(), comando(p.getCorpo()));
+		} else if (comando instanceof Escolha e) {
+			return escolha(e);
+		}
+		return comando;
+	}
+
+	private Comando se(Se se) {
+		final List<Bool> condicoes = new ArrayList<>();
+		final List<Comando> ramos = new ArrayList<>();
+		Comando senao = null;
+		boolean verdadeiro = false;
+		for (int i = 0; i < se.getCondicoes().size() && !verdadeiro; i++) {
+			final Bool condicao = se.getCondicoes().get(i);
+			if (condicao instanceof Booleano v) {
+				// Falso: ramo nunca executa. Verdadeiro: ramo vira o senao
+				if (v.getValor()) {
+					senao = comando(se.getRamos().get(i));
+					verdadeiro = true;
+				}
+			} else {
+				condicoes.add(condicao);
+				ramos.add(comando(se.getRamos().get(i)));
+			}
+		}
+		if (!verdadeiro && se.getSenao() != null) {
+			senao = comando(se.getSenao());
+		}
+		if (senao instanceof Skip) {
+			senao = null;
+		}
+		if (condicoes.isEmpty()) {
+			return senao == null ? SKIP : senao;
+		}
+		return new Se(condicoes, ramos, senao);
+	}
+
+	private Comando escolha(Escolha e) {
+		final Comando outro = e.getOutro() == null ? null : comando(e.getOutro());
+		if (e.getSeletor() instanceof Inteiro k) {
+			final int i = Arrays.binarySearch(e.getChaves(), k.getValor());
+			final Comando escolhido = i >= 0 ? comando(e.getCasos()[i]) : outro;
+			return escolhido == null ? SKIP : escolhido;
+		}
+		final Comando[] casos = new Comando[e.getCasos().length];
+		Arrays.setAll(casos, i -> comando(e.getCasos()[i]));
+		return Fabrica.escolha(e.getSeletor(), e.getChaves(), casos, outro);
+	}
+
+	// Nenhum alvo é lido e avaliar as expressões não tem efeito visível
+	private boolean morta(Atribuicao a) {
+		if (lidas == null || a.getSlots().length > a.getExps().size()) {
+			return false;
+		}
+		for (int slot : a.getSlots()) {
+			if (lidas.get(slot)) {
+				return false;
+			}
+		}
+		for (Expressao e : a.getExps()) {
+			if (!Simplificador.puro(e) || !Analise.seguro(e)) {
+				return false;
+			}
+		}
+		removeu = true;
+		return true;
+	}
+}
@@ -0,0 +1,386 @@
+package plp.enquanto;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+import plp.enquanto.Linguagem.*;
+
+/*
+ * Avaliação parcial do programa com os valores de leia conhecidos de
+ * antemão. A árvore é percorrida como se fosse executada, guardando o
+ * valor das variáveis conhecidas (no início todas valem 0): leia vira a
+ * próxima entrada, expressões conhecidas viram constantes, condições
+ * conhecidas escolhem o ramo e laços com condição conhecida são
+ * desenrolados. O que depende de valores desconhecidos fica no programa
+ * residual; antes de uma construção desconhecida, as variáveis que ela
+ * altera são gravadas e passam a ser desconhecidas.
+ *
+ * A especialização para (e o resto do programa segue como foi escrito,
+ * depois de gravar as variáveis conhecidas) quando passa de LIMITE
+ * comandos, em atribuições incompletas e quando um leia que talvez não
+ * execute ainda tem entradas para consumir; as entradas que sobram ficam
+ * na fila para serem lidas em tempo de execução.
+ */
+public final class Especializador {
+	// Comandos avaliados antes de desistir de desenrolar laços
+	private static final int LIMITE = 100_000;
+
+	private static final Parada PARADA = new Parada();
+
+	private final int[] entradas;
+	private int lidas;
+	private int passos;
+	// Profundidade de ramos e laços desconhecidos: o leia ali pode não executar
+	private int incertos;
+
+	private Especializador(int[] entradas) {
+		this.entradas = entradas;
+	}
+
+	// Consome de entradas os valores usados pela especialização
+	public static Programa especialize(Programa programa, Deque<Integer> entradas) {
+		final Especializador e = new Especializador(entradas.stream().mapToInt(Integer::intValue).toArray());
+		final Estado estado = new Estado(programa.getVariaveis());
+		final List<Comando> residuo = new ArrayList<>();
+		final Deque<Comando> pendentes = new ArrayDeque<>(programa.getComandos());
+		while (!pendentes.isEmpty()) {
+			final Comando c = pendentes.pop();
+			final Estado antes = estado.copia();
+			final int tamanho = residuo.size();
+			final int lidas = e.lidas;
+			try {
+				e.comando(c, estado, residuo, pendentes);
+			} catch (Parada p) {
+				// Desfaz o comando e deixa o resto para a execução
+				residuo.subList(tamanho, residuo.size()).clear();
+				e.lidas = lidas;
+				e.grave(antes, residuo, null);
+				residuo.add(c);
+				residuo.addAll(pendentes);
+				break;
+			}
+		}
+		for (int i = 0; i < e.lidas; i++) {
+			entradas.pop();
+		}
+		return new Programa(residuo, programa.getVariaveis());
+	}
+
+	/*
+	 * Comandos: o residual vai para residuo; os comandos a avaliar em
+	 * seguida (corpos de laços desenrolados) entram no início de pendentes
+	 */
+	private void comando(Comando comando, Estado estado, List<Comando> residuo, Deque<Comando> pendentes) {
+		if (++passos > LIMITE) {
+			throw PARADA;
+		}
+		if (comando instanceof Atribuicao a) {
+			atribuicao(a, estado, residuo);
+		} else if (comando instanceof Bloco b) {
+			final List<Comando> comandos = b.getComandos();
+			for (int i = comandos.size() - 1; i >= 0; i--) {
+				pendentes.push(comandos.get(i));
+			}
+		} else if (comando instanceof Se se) {
+			se(se, estado, residuo, pendentes);
+		} else if (comando instanceof Enquanto e) {
+			final int lidas = this.lidas;
+			final Bool condicao = condicao(e.getCondicao(), estado);
+			if (condicao instanceof Booleano v) {
+				if (v.getValor()) {
+					pendentes.push(e);
+					pendentes.push(e.getComando());
+				}
+			} else {
+				// A condição volta a ser avaliada a cada volta, já sem os valores de agora
+				this.lidas = lidas;
+				final BitSet atribuidas = generalize(e, estado, residuo);
+				incertos++;
+				residuo.add(new Enquanto(condicao(e.getCondicao(), estado),
+						regiao(e.getComando(), estado, atribuidas)));
+				incertos--;
+			}
+		} else if (comando instanceof Repita r) {
+			final Expressao vezes = expressao(r.getVezes(), estado);
+			if (vezes instanceof Inteiro n) {
+				if (n.getValor() > 0) {
+					pendentes.push(new Repita(new Inteiro(n.getValor() - 1), r.getCorpo()));
+					pendentes.push(r.getCorpo());
+				}
+			} else {
+				final BitSet atribuidas = generalize(r, estado, residuo);
+				incertos++;
+				residuo.add(new Repita(vezes, regiao(r.getCorpo(), estado, atribuidas)));
+				incertos--;
+			}
+		} else if (comando instanceof Para p) {
+			para(p, estado, residuo, pendentes);
+		} else if (comando instanceof Escolha e) {
+			escolha(e, estado, residuo, pendentes);
+		} else if (comando instanceof ExibaExp e) {
+			final Expressao exp = expressao(e.getExp(), estado);
+			residuo.add(exp instanceof Inteiro k ? new Exiba(String.valueOf(k.getValor())) : new ExibaExp(exp));
+		} else if (comando instanceof Escreva e) {
+			final Expressao exp = expressao(e.getExp(), estado);
+			residuo.add(exp instanceof Inteiro k ? new Exiba(String.valueOf(k.getValor())) : new Escreva(exp));
+		} else if (!(comando instanceof Skip)) {
+			residuo.add(comando);
+		}
+	}
+
+	private void atribuicao(Atribuicao a, Estado estado, List<Comando> residuo) {
+		final int[] slots = a.getSlots();
+		if (slots.length > a.getExps().size()) {
+			// Falha no meio da atribuição: fica para a execução
+			throw PARADA;
+		}
+		final List<Expressao> exps = new ArrayList<>();
+		for (Expressao e : a.getExps()) {
+			exps.add(expressao(e, estado));
+		}
+		// Valores conhecidos vão para o estado; os outros ficam no residual, na mesma ordem
+		final List<Integer> restantes = new ArrayList<>();
+		final List<Expressao> desconhecidas = new ArrayList<>();
+		for (int i = 0; i < slots.length; i++) {
+			if (exps.get(i) instanceof Inteiro k) {
+				estado.defina(slots[i], k.getValor());
+			} else {
+				estado.esqueca(slots[i]);
+				restantes.add(slots[i]);
+				desconhecidas.add(exps.get(i));
+			}
+		}
+		// Expressões a mais também são avaliadas
+		for (int i = slots.length; i < exps.size(); i++) {
+			if (!(exps.get(i) instanceof Inteiro)) {
+				desconhecidas.add(exps.get(i));
+			}
+		}
+		if (!desconhecidas.isEmpty()) {
+			residuo.add(Fabrica.atribuicao(restantes.stream().mapToInt(Integer::intValue).toArray(), desconhecidas));
+		}
+	}
+
+	private void se(Se se, Estado estado, List<Comando> residuo, Deque<Comando> pendentes) {
+		final List<Bool> condicoes = se.getCondicoes();
+		for (int i = 0; i < condicoes.size(); i++) {
+			final Bool condicao = condicao(condicoes.get(i), estado);
+			if (!(condicao instanceof Booleano v)) {
+				// Daqui em diante nada é certo: as condições seguintes podem não ser avaliadas
+				final BitSet atribuidas = generalize(se, estado, residuo);
+				final List<Bool> residuais = new ArrayList<>();
+				final List<Comando> ramos = new ArrayList<>();
+				residuais.add(condicao);
+				incertos++;
+				for (int j = i + 1; j < condicoes.size(); j++) {
+					residuais.add(condicao(condicoes.get(j), estado));
+				}
+				for (int j = i; j < condicoes.size(); j++) {
+					ramos.add(regiao(se.getRamos().get(j), estado, atribuidas));
+				}
+				final Comando senao = se.getSenao() == null ? null : regiao(se.getSenao(), estado, atribuidas);
+				incertos--;
+				residuo.add(new Se(residuais, ramos, senao));
+				return;
+			} else if (v.getValor()) {
+				pendentes.push(se.getRamos().get(i));
+				return;
+			}
+		}
+		if (se.getSenao() != null) {
+			pendentes.push(se.getSenao());
+		}
+	}
+
+	// O início é avaliado uma vez; o fim, antes de cada volta
+	private void para(Para p, Estado estado, List<Comando> residuo, Deque<Comando> pendentes) {
+		final Expressao inicio = expressao(p.getInicio(), estado);
+		final int lidas = this.lidas;
+		final Expressao fim = inicio instanceof Inteiro ? expressao(p.getFim(), estado) : null;
+		if (inicio instanceof Inteiro i && fim instanceof Inteiro f) {
+			if (i.getValor() <= f.getValor()) {
+				// As voltas seguintes são um para que começa no próximo valor do contador
+				estado.defina(p.getSlot(), i.getValor());
+				pendentes.push(new Para(p.getSlot(), new Inteiro(i.getValor() + 1), p.getFim(), p.getCorpo()));
+				pendentes.push(p.getCorpo());
+			}
+			return;
+		}
+		this.lidas = lidas;
+		final BitSet atribuidas = generalize(p, estado, residuo);
+		incertos++;
+		residuo.add(new Para(p.getSlot(), inicio, expressao(p.getFim(), estado),
+				regiao(p.getCorpo(), estado, atribuidas)));
+		incertos--;
+	}
+
+	private void escolha(Escolha e, Estado estado, List<Comando> residuo, Deque<Comando> pendentes) {
+		final Expressao seletor = expressao(e.getSeletor(), estado);
+		if (seletor instanceof Inteiro k) {
+			final int i = Arrays.binarySearch(e.getChaves(), k.getValor());
+			if (i >= 0) {
+				pendentes.push(e.getCasos()[i]);
+			} else if (e.getOutro() != null) {
+				pendentes.push(e.getOutro());
+			}
+			return;
+		}
+		final BitSet atribuidas = generalize(e, estado, residuo);
+		final Comando[] casos = new Comando[e.getCasos().length];
+		incertos++;
+		for (int i = 0; i < casos.length; i++) {
+			casos[i] = regiao(e.getCasos()[i], estado, atribuidas);
+		}
+		final Comando outro = e.getOutro() == null ? null : regiao(e.getOutro(), estado, atribuidas);
+		incertos--;
+		residuo.add(Fabrica.escolha(seletor, e.getChaves(), casos, outro));
+	}
+
+	/*
+	 * Antes de uma construção desconhecida: grava as variáveis conhecidas que
+	 * ela pode alterar, que deixam de ser conhecidas
+	 */
+	private BitSet generalize(Comando comando, Estado estado, List<Comando> residuo) {
+		final BitSet atribuidas = Analise.atribuidas(comando);
+		grave(estado, residuo, atribuidas);
+		atribuidas.stream().forEach(estado::esqueca);
+		return atribuidas;
+	}
+
+	/*
+	 * Ramo ou corpo de uma construção desconhecida, com uma cópia do estado.
+	 * No fim grava as variáveis de atribuidas que voltaram a ser conhecidas,
+	 * já que depois da construção elas são lidas da memória.
+	 */
+	private Comando regiao(Comando comando, Estado estado, BitSet atribuidas) {
+		final Estado local = estado.copia();
+		final List<Comando> residuo = new ArrayList<>();
+		final Deque<Comando> pendentes = new ArrayDeque<>();
+		pendentes.push(comando);
+		while (!pendentes.isEmpty()) {
+			comando(pendentes.pop(), local, residuo, pendentes);
+		}
+		grave(local, residuo, atribuidas);
+		return residuo.size() == 1 ? residuo.get(0) : new Bloco(residuo);
+	}
+
+	// Atribui as variáveis conhecidas (entre slots, ou todas se for null)
+	private void grave(Estado estado, List<Comando> residuo, BitSet slots) {
+		for (int slot = estado.conhecidas.nextSetBit(0); slot >= 0; slot = estado.conhecidas.nextSetBit(slot + 1)) {
+			if (slots == null || slots.get(slot)) {
+				residuo.add(Fabrica.atribuicao(new int[] { slot }, List.of(new Inteiro(estado.valores[slot]))));
+			}
+		}
+	}
+
+	/*
+	 * Expressoes
+	 */
+	private Expressao expressao(Expressao exp, Estado estado) {
+		if (exp instanceof Id id && estado.conhecidas.get(id.getSlot())) {
+			return new Inteiro(estado.valores[id.getSlot()]);
+		} else if (exp instanceof Leia && lidas < entradas.length) {
+			if (incertos > 0) {
+				throw PARADA;
+			}
+			return new Inteiro(entradas[lidas++]);
+		} else if (exp instanceof OpBin<?> op) {
+			final Expressao esq = expressao((Expressao) op.getEsq(), estado);
+			final Expressao dir = expressao((Expressao) op.getDir(), estado);
+			final Expressao nova = Analise.reconstrua(exp, esq, dir);
+			if (esq instanceof Inteiro && dir instanceof Inteiro) {
+				try {
+					return new Inteiro(nova.getValor());
+				} catch (ArithmeticException e) {
+					// Divisão por zero: falha em tempo de execução
+				}
+			}
+			return nova;
+		}
+		return exp;
+	}
+
+	private Bool condicao(Bool b, Estado estado) {
+		if (b instanceof NaoLogico n) {
+			final Bool operando = condicao(n.getOperando(), estado);
+			return operando instanceof Booleano v ? new Booleano(!v.getValor()) : new NaoLogico(operando);
+		} else if (b instanceof ELogico e) {
+			final Bool esq = condicao(e.getEsq(), estado);
+			if (esq instanceof Booleano v) {
+				return v.getValor() ? condicao(e.getDir(), estado) : esq;
+			}
+			return new ELogico(esq, incerta(e.getDir(), estado));
+		} else if (b instanceof OuLogico o) {
+			final Bool esq = condicao(o.getEsq(), estado);
+			if (esq instanceof Booleano v) {
+				return v.getValor() ? esq : condicao(o.getDir(), estado);
+			}
+			return new OuLogico(esq, incerta(o.getDir(), estado));
+		} else if (b instanceof XorLogico x) {
+			final Bool esq = condicao(x.getEsq(), estado);
+			final Bool dir = condicao(x.getDir(), estado);
+			if (esq instanceof Booleano u && dir instanceof Booleano v) {
+				return new Booleano(u.getValor() ^ v.getValor());
+			}
+			return new XorLogico(esq, dir);
+		} else if (b instanceof OpBin<?> op) {
+			final Expressao esq = expressao((Expressao) op.getEsq(), estado);
+			final Expressao dir = expressao((Expressao) op.getDir(), estado);
+			final Bool rel = Fabrica.relacao(Fabrica.operador(b), esq, dir);
+			return esq instanceof Inteiro && dir instanceof Inteiro ? new Booleano(rel.getValor()) : rel;
+		}
+		return b;
+	}
+
+	// Lado direito de e/ou com o esquerdo desconhecido: pode não ser avaliado
+	private Bool incerta(Bool b, Estado estado) {
+		incertos++;
+		try {
+			return condicao(b, estado);
+		} finally {
+			incertos--;
+		}
+	}
+
+	private static final class Estado {
+		private final int[] valores;
+		private final BitSet conhecidas;
+
+		Estado(int variaveis) {
+			valores = new int[variaveis];
+			conhecidas = new BitSet();
+			conhecidas.set(0, variaveis);
+		}
+
+		private Estado(int[] valores, BitSet conhecidas) {
+			this.valores = valores;
+			this.conhecidas = conhecidas;
+		}
+
+		Estado copia() {
+			return new Estado(valores.clone(), (BitSet) conhecidas.clone());
+		}
+
+		void defina(int slot, int valor) {
+			valores[slot] = valor;
+			conhecidas.set(slot);
+		}
+
+		void esqueca(int slot) {
+			conhecidas.clear(slot);
+		}
+	}
+
+	// Sem pilha: só desfaz a especialização até o comando atual
+	private static final class Parada extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		Parada() {
+			super(null, null, false, false);
+		}
+	}
+}
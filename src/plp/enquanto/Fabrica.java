@@ -0,0 +1,284 @@
+package plp.enquanto;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+
+import plp.enquanto.Linguagem.*;
+
+/*
+ * Constrói nós escolhendo, em tempo de construção da árvore, a forma
+ * especializada mais rápida. Usada por Regras e pelas otimizações que
+ * reconstroem a árvore.
+ */
+public final class Fabrica {
+	// Maior cadeia de multiplicações gerada para uma potência
+	private static final int MULTIPLICACOES = 3;
+	// Cadeias associativas maiores que isto são equilibradas
+	private static final int CADEIA = 64;
+
+	private Fabrica() {
+	}
+
+	/*
+	 * Escolha: o mapa já resolveu chaves repetidas (vale o último caso).
+	 * Tabela de desvios quando compensa, pelo mesmo custo que o javac usa
+	 * para decidir entre tableswitch e lookupswitch; senão busca binária.
+	 */
+	public static Escolha escolha(Expressao seletor, Map<Integer, Comando> casos, Comando outro) {
+		final TreeMap<Integer, Comando> ordenados = new TreeMap<>(casos);
+		final int[] chaves = new int[ordenados.size()];
+		final Comando[] comandos = new Comando[ordenados.size()];
+		int i = 0;
+		for (Map.Entry<Integer, Comando> caso : ordenados.entrySet()) {
+			chaves[i] = caso.getKey();
+			comandos[i++] = caso.getValue();
+		}
+		return escolha(seletor, chaves, comandos, outro);
+	}
+
+	// chaves ordenadas e sem repetição
+	public static Escolha escolha(Expressao seletor, int[] chaves, Comando[] casos, Comando outro) {
+		if (densa(chaves)) {
+			return new EscolhaDensa(seletor, chaves, casos, outro);
+		}
+		return new Escolha(seletor, chaves, casos, outro);
+	}
+
+	// Multiplicação por potência de dois (de qualquer lado) vira deslocamento
+	public static Expressao multiplicacao(Expressao esq, Expressao dir) {
+		if (dir instanceof Inteiro k && Integer.bitCount(k.getValor()) == 1) {
+			return new Reducoes.Deslocamento(esq, dir, esq, Integer.numberOfTrailingZeros(k.getValor()));
+		} else if (esq instanceof Inteiro k && Integer.bitCount(k.getValor()) == 1) {
+			return new Reducoes.Deslocamento(esq, dir, dir, Integer.numberOfTrailingZeros(k.getValor()));
+		}
+		return new ExpMult(esq, dir);
+	}
+
+	/*
+	 * Divisão por constante: ±2^s vira deslocamento com correção dos
+	 * negativos, as demais (exceto 0, 1 e -1) multiplicação pela parte alta
+	 */
+	public static Expressao divisao(Expressao esq, Expressao dir) {
+		if (dir instanceof Inteiro k) {
+			final int d = k.getValor();
+			final int s = Integer.numberOfTrailingZeros(d);
+			if (d == 0 || d == 1 || d == -1) {
+				return new ExpDiv(esq, dir);
+			} else if (d == 1 << s || d == -(1 << s)) {
+				return new Reducoes.DivisaoPotencia(esq, dir, s, d < 0);
+			}
+			return new Reducoes.DivisaoMagica(esq, dir, d);
+		}
+		return new ExpDiv(esq, dir);
+	}
+
+	/*
+	 * Potência com expoente constante: x ^ 0 = 1 (se x não lê nem falha),
+	 * x ^ 1 = x e, para uma variável, expoentes pequenos viram cadeias de
+	 * multiplicações. Os demais casos ficam em ExpPow, que usa quadrados
+	 * sucessivos. Constantes só são calculadas aqui se o resultado não
+	 * estoura, para que o modo exato (plp.enquanto.exato) receba a própria
+	 * potência.
+	 */
+	public static Expressao potencia(Expressao base, Expressao expoente) {
+		if (expoente instanceof Inteiro k) {
+			final int n = k.getValor();
+			if (base instanceof Inteiro b && n >= 0 && cabe(b.getValor(), n)) {
+				return new Inteiro(ExpPow.potencia(b.getValor(), n));
+			} else if (n == 0 && Simplificador.puro(base) && Analise.seguro(base)) {
+				return new Inteiro(1);
+			} else if (n == 1) {
+				return base;
+			} else if (base instanceof Id && n >= 2 && n <= MULTIPLICACOES + 1) {
+				Expressao produto = base;
+				for (int i = 1; i < n; i++) {
+					produto = new ExpMult(produto, base);
+				}
+				return produto;
+			}
+		}
+		return new ExpPow(base, expoente);
+	}
+
+	// b ^ n cabe em int sem estourar
+	private static boolean cabe(int b, int n) {
+		if (b >= -1 && b <= 1) {
+			return true;
+		}
+		int r = 1;
+		for (int i = 0; i < n; i++) {
+			if ((long) r * b != r * b) {
+				return false;
+			}
+			r *= b;
+		}
+		return true;
+	}
+
+	/*
+	 * Relação com o operador op ("=", "<>", "<", "<=", ">", ">="). Operandos
+	 * que são variáveis ou constantes usam as formas de Comparacoes.
+	 */
+	public static Bool relacao(String op, Expressao esq, Expressao dir) {
+		if (esq instanceof Id a && dir instanceof Inteiro k) {
+			return switch (op) {
+				case "=" -> new Comparacoes.IgualVarConst(a, k);
+				case "<>" -> new Comparacoes.DiferenteVarConst(a, k);
+				case "<" -> new Comparacoes.MenorVarConst(a, k);
+				case "<=" -> new Comparacoes.MenorIgualVarConst(a, k);
+				case ">" -> new Comparacoes.MaiorVarConst(a, k);
+				case ">=" -> new Comparacoes.MaiorIgualVarConst(a, k);
+				default -> throw new IllegalArgumentException("Operador desconhecido: " + op);
+			};
+		} else if (esq instanceof Id a && dir instanceof Id b) {
+			return switch (op) {
+				case "=" -> new Comparacoes.IgualVarVar(a, b);
+				case "<>" -> new Comparacoes.DiferenteVarVar(a, b);
+				case "<" -> new Comparacoes.MenorVarVar(a, b);
+				case "<=" -> new Comparacoes.MenorIgualVarVar(a, b);
+				case ">" -> new Comparacoes.MaiorVarVar(a, b);
+				case ">=" -> new Comparacoes.MaiorIgualVarVar(a, b);
+				default -> throw new IllegalArgumentException("Operador desconhecido: " + op);
+			};
+		} else if (esq instanceof Inteiro k && dir instanceof Id b) {
+			return switch (op) {
+				case "=" -> new Comparacoes.IgualConstVar(k, b);
+				case "<>" -> new Comparacoes.DiferenteConstVar(k, b);
+				case "<" -> new Comparacoes.MenorConstVar(k, b);
+				case "<=" -> new Comparacoes.MenorIgualConstVar(k, b);
+				case ">" -> new Comparacoes.MaiorConstVar(k, b);
+				case ">=" -> new Comparacoes.MaiorIgualConstVar(k, b);
+				default -> throw new IllegalArgumentException("Operador desconhecido: " + op);
+			};
+		}
+		return switch (op) {
+			case "=" -> new ExpIgual(esq, dir);
+			case "<>" -> new ExpDiferente(esq, dir);
+			case "<" -> new ExpMenor(esq, dir);
+			case "<=" -> new ExpMenorIgual(esq, dir);
+			case ">" -> new ExpMaior(esq, dir);
+			case ">=" -> new ExpMaiorIgual(esq, dir);
+			default -> throw new IllegalArgumentException("Operador desconhecido: " + op);
+		};
+	}
+
+	// Operador de uma relação, para reconstruí-la com outros operandos
+	public static String operador(Bool rel) {
+		if (rel instanceof ExpIgual) {
+			return "=";
+		} else if (rel instanceof ExpDiferente) {
+			return "<>";
+		} else if (rel instanceof ExpMenor) {
+			return "<";
+		} else if (rel instanceof ExpMenorIgual) {
+			return "<=";
+		} else if (rel instanceof ExpMaior) {
+			return ">";
+		} else if (rel instanceof ExpMaiorIgual) {
+			return ">=";
+		}
+		throw new IllegalArgumentException("Não é uma relação: " + rel.getClass().getSimpleName());
+	}
+
+	/*
+	 * Atribuição: formas de um só alvo e a troca de duas variáveis usam as
+	 * superinstruções de Atribuicoes; as demais, a atribuição geral.
+	 */
+	public static Atribuicao atribuicao(int[] slots, List<Expressao> exps) {
+		if (slots.length == 1 && exps.size() == 1) {
+			final int a = slots[0];
+			final Expressao exp = exps.get(0);
+			if (exp instanceof Id b) {
+				return new Atribuicoes.Copia(a, b);
+			} else if (exp instanceof Inteiro k) {
+				return new Atribuicoes.Constante(a, k);
+			} else if (exp instanceof ExpSoma op && variavel(op.getEsq(), a)) {
+				return op.getDir() instanceof Inteiro k
+						? new Atribuicoes.Incremento(a, exp, k.getValor())
+						: new Atribuicoes.Acumulacao(a, exp, op.getDir());
+			} else if (exp instanceof ExpSoma op && variavel(op.getDir(), a)) {
+				return op.getEsq() instanceof Inteiro k
+						? new Atribuicoes.Incremento(a, exp, k.getValor())
+						: new Atribuicoes.Acumulacao(a, exp, op.getEsq());
+			} else if (exp instanceof ExpSub op && variavel(op.getEsq(), a) && op.getDir() instanceof Inteiro k) {
+				return new Atribuicoes.Incremento(a, exp, -k.getValor());
+			}
+			return new Atribuicoes.Simples(a, exp);
+		} else if (slots.length == 2 && exps.size() == 2 && slots[0] != slots[1]
+				&& variavel(exps.get(0), slots[1]) && variavel(exps.get(1), slots[0])) {
+			return new Atribuicoes.Troca(slots, exps);
+		}
+		return new Atribuicao(slots, exps);
+	}
+
+	/*
+	 * Cadeias de um operador associativo (a * b * c..., a e b e c...). As
+	 * curtas ficam associadas à esquerda, como o parser as monta; as longas
+	 * viram uma árvore equilibrada, de profundidade log n, para que avaliar
+	 * ou percorrer a árvore não estoure a pilha. Os termos continuam na
+	 * mesma ordem, então as leituras também.
+	 */
+	public static <T> T encadeie(List<T> termos, BinaryOperator<T> op) {
+		if (termos.size() <= CADEIA) {
+			T esq = termos.get(0);
+			for (int i = 1; i < termos.size(); i++) {
+				esq = op.apply(esq, termos.get(i));
+			}
+			return esq;
+		}
+		return equilibre(termos, 0, termos.size(), op);
+	}
+
+	private static <T> T equilibre(List<T> termos, int i, int j, BinaryOperator<T> op) {
+		if (j - i == 1) {
+			return termos.get(i);
+		}
+		final int m = (i + j) >>> 1;
+		return op.apply(equilibre(termos, i, m, op), equilibre(termos, m, j, op));
+	}
+
+	/*
+	 * Cadeia de somas e subtrações: subtrai marca os termos precedidos por
+	 * "-". Equilibrada como em encadeie, com a - (b + c) no lugar de
+	 * a - b - c, o que vale também com estouro, já que int soma módulo 2^32.
+	 */
+	public static Expressao somas(List<Expressao> termos, BitSet subtrai) {
+		if (termos.size() <= CADEIA) {
+			Expressao esq = termos.get(0);
+			for (int i = 1; i < termos.size(); i++) {
+				esq = subtrai.get(i) ? new ExpSub(esq, termos.get(i)) : new ExpSoma(esq, termos.get(i));
+			}
+			return esq;
+		}
+		return somas(termos, subtrai, 0, termos.size(), false);
+	}
+
+	// Termos i até j - 1, o primeiro somado; com trocados, os sinais dos demais se invertem
+	private static Expressao somas(List<Expressao> termos, BitSet subtrai, int i, int j, boolean trocados) {
+		if (j - i == 1) {
+			return termos.get(i);
+		}
+		final int m = (i + j) >>> 1;
+		final Expressao esq = somas(termos, subtrai, i, m, trocados);
+		final boolean menos = subtrai.get(m) != trocados;
+		final Expressao dir = somas(termos, subtrai, m, j, trocados != menos);
+		return menos ? new ExpSub(esq, dir) : new ExpSoma(esq, dir);
+	}
+
+	private static boolean variavel(Expressao exp, int slot) {
+		return exp instanceof Id id && id.getSlot() == slot;
+	}
+
+	private static boolean densa(int[] chaves) {
+		if (chaves.length == 0) {
+			return false;
+		}
+		final long intervalo = (long) chaves[chaves.length - 1] - chaves[0] + 1;
+		final long tabela = 4 + intervalo + 3 * 3;
+		final long busca = 3 + 2L * chaves.length + 3L * chaves.length;
+		return tabela <= busca;
+	}
+}
@@ -0,0 +1,221 @@
+package plp.enquanto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/*
+ * CharStream do ANTLR sobre os bytes UTF-8 do arquivo mapeado em memória,
+ * sem a cópia para um vetor de code points que CharStreams faz. Em fontes
+ * só ASCII o índice do caractere é o do byte. Nos demais um cursor anda
+ * de code point em code point, com um marco a cada MARCO code points para
+ * os saltos longos. Bytes que não são UTF-8 válido ficam com CharStreams,
+ * que os troca por U+FFFD.
+ */
+final class Fonte implements CharStream {
+	private static final int MARCO = 4096;
+
+	private final ByteBuffer bytes;
+	private final String nome;
+	private final int tamanho;
+	private final boolean ascii;
+	// Posição em bytes dos code points 0, MARCO, 2 * MARCO, ...
+	private final int[] marcos;
+
+	private int indice;
+	// Cursor: posição em bytes do code point de número cursor
+	private int cursor;
+	private int posicao;
+
+	private Fonte(ByteBuffer bytes, String nome, int tamanho, int[] marcos) {
+		this.bytes = bytes;
+		this.nome = nome;
+		this.tamanho = tamanho;
+		this.ascii = marcos == null;
+		this.marcos = marcos;
+	}
+
+	// O arquivo inteiro, só para leitura e fora do heap
+	static ByteBuffer mapeie(Path arq) throws IOException {
+		try (FileChannel canal = FileChannel.open(arq, StandardOpenOption.READ)) {
+			if (canal.size() > Integer.MAX_VALUE) {
+				throw new IOException("Arquivo grande demais: " + arq);
+			}
+			return canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+		}
+	}
+
+	static CharStream de(ByteBuffer bytes, String nome) {
+		final int n = bytes.limit();
+		int i = 0;
+		while (i < n && bytes.get(i) >= 0) {
+			i++;
+		}
+		if (i == n) {
+			return new Fonte(bytes, nome, n, null);
+		}
+		// Conta os code points e guarda os marcos, validando o UTF-8
+		final int[] marcos = new int[n / MARCO + 1];
+		int tamanho = 0;
+		for (i = 0; i < n; tamanho++) {
+			if (tamanho % MARCO == 0) {
+				marcos[tamanho / MARCO] = i;
+			}
+			final int comprimento = comprimento(bytes, i);
+			if (comprimento < 0) {
+				return CharStreams.fromString(StandardCharsets.UTF_8.decode(bytes.duplicate()).toString(), nome);
+			}
+			i += comprimento;
+		}
+		return new Fonte(bytes, nome, tamanho, marcos);
+	}
+
+	/*
+	 * Tamanho em bytes do code point que começa em i, ou -1 se a sequência
+	 * não é UTF-8 válido (contínuos errados, formas longas, surrogates)
+	 */
+	private static int comprimento(ByteBuffer bytes, int i) {
+		final int b = bytes.get(i) & 0xFF;
+		final int comprimento;
+		final int minimo;
+		if (b < 0x80) {
+			return 1;
+		} else if (b >= 0xC2 && b < 0xE0) {
+			comprimento = 2;
+			minimo = 0x80;
+		} else if (b >= 0xE0 && b < 0xF0) {
+			comprimento = 3;
+			minimo = 0x800;
+		} else if (b >= 0xF0 && b < 0xF5) {
+			comprimento = 4;
+			minimo = 0x10000;
+		} else {
+			return -1;
+		}
+		if (i + comprimento > bytes.limit()) {
+			return -1;
+		}
+		int c = b & (0x7F >> comprimento);
+		for (int k = 1; k < comprimento; k++) {
+			final int continuacao = bytes.get(i + k) & 0xFF;
+			if ((continuacao & 0xC0) != 0x80) {
+				return -1;
+			}
+			c = c << 6 | continuacao & 0x3F;
+		}
+		if (c < minimo || c > Character.MAX_CODE_POINT || (c >= 0xD800 && c <= 0xDFFF)) {
+			return -1;
+		}
+		return comprimento;
+	}
+
+	private int decodifique(int i) {
+		final int b = bytes.get(i) & 0xFF;
+		if (b < 0x80) {
+			return b;
+		}
+		final int comprimento = b < 0xE0 ? 2 : b < 0xF0 ? 3 : 4;
+		int c = b & (0x7F >> comprimento);
+		for (int k = 1; k < comprimento; k++) {
+			c = c << 6 | bytes.get(i + k) & 0x3F;
+		}
+		return c;
+	}
+
+	// Posição em bytes do code point k (k == tamanho dá o fim)
+	private int posicaoDe(int k) {
+		if (ascii) {
+			return k;
+		}
+		if (Math.abs(k - cursor) >= MARCO) {
+			// O fim pode cair depois do último marco
+			final int marco = Math.min(k, tamanho - 1) / MARCO;
+			cursor = marco * MARCO;
+			posicao = marcos[marco];
+		}
+		while (cursor < k) {
+			posicao += comprimento(bytes, posicao);
+			cursor++;
+		}
+		while (cursor > k) {
+			do {
+				posicao--;
+			} while ((bytes.get(posicao) & 0xC0) == 0x80);
+			cursor--;
+		}
+		return posicao;
+	}
+
+	@Override
+	public void consume() {
+		if (indice >= tamanho) {
+			throw new IllegalStateException("cannot consume EOF");
+		}
+		indice++;
+	}
+
+	@Override
+	public int LA(int i) {
+		final int k = i > 0 ? indice + i - 1 : indice + i;
+		if (i == 0 || k < 0 || k >= tamanho) {
+			return i == 0 ? 0 : IntStream.EOF;
+		}
+		return ascii ? bytes.get(k) : decodifique(posicaoDe(k));
+	}
+
+	@Override
+	public int mark() {
+		return -1;
+	}
+
+	@Override
+	public void release(int marker) {
+	}
+
+	@Override
+	public int index() {
+		return indice;
+	}
+
+	@Override
+	public void seek(int index) {
+		indice = Math.min(index, tamanho);
+	}
+
+	@Override
+	public int size() {
+		return tamanho;
+	}
+
+	@Override
+	public String getSourceName() {
+		return nome == null || nome.isEmpty() ? UNKNOWN_SOURCE_NAME : nome;
+	}
+
+	@Override
+	public String getText(Interval intervalo) {
+		final int a = Math.max(intervalo.a, 0);
+		final int b = Math.min(intervalo.b, tamanho - 1);
+		if (a > b) {
+			return "";
+		}
+		final int inicio = posicaoDe(a);
+		final int fim = posicaoDe(b + 1);
+		final byte[] texto = new byte[fim - inicio];
+		bytes.get(inicio, texto);
+		return new String(texto, ascii ? StandardCharsets.US_ASCII : StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		return getText(Interval.of(0, tamanho - 1));
+	}
+}
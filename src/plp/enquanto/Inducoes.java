@@ -0,0 +1,114 @@
+package plp.enquanto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import plp.enquanto.Linguagem.*;
+
+/*
+ * Redução de força das variáveis de indução: em um para cuja variável
+ * não é atribuída no corpo, i * k (k constante) cresce k a cada volta.
+ * O produto vira uma variável temporária, iniciada com inicio * k antes
+ * do laço e somada de k no fim de cada volta; o estouro de int dá o mesmo
+ * resultado da multiplicação. Como o início passa a ser avaliado duas
+ * vezes, só são tratados laços cujo início não tem leia nem pode falhar.
+ */
+public final class Inducoes {
+	private int variaveis;
+
+	private Inducoes(int variaveis) {
+		this.variaveis = variaveis;
+	}
+
+	public static Programa reduza(Programa programa) {
+		final Inducoes inducoes = new Inducoes(programa.getVariaveis());
+		final List<Comando> comandos = new ArrayList<>();
+		for (Comando c : programa.getComandos()) {
+			comandos.add(inducoes.comando(c));
+		}
+		return new Programa(comandos, inducoes.variaveis);
+	}
+
+	private Comando comando(Comando comando) {
+		if (comando instanceof Bloco b) {
+			final List<Comando> comandos = new ArrayList<>();
+			for (Comando c : b.getComandos()) {
+				comandos.add(comando(c));
+			}
+			return new Bloco(comandos);
+		} else if (comando instanceof Se se) {
+			final List<Comando> ramos = new ArrayList<>();
+			for (Comando c : se.getRamos()) {
+				ramos.add(comando(c));
+			}
+			final Comando senao = se.getSenao() == null ? null : comando(se.getSenao());
+			return new Se(se.getCondicoes(), ramos, senao);
+		} else if (comando instanceof Escolha e) {
+			final Comando[] casos = new Comando[e.getCasos().length];
+			Arrays.setAll(casos, i -> comando(e.getCasos()[i]));
+			final Comando outro = e.getOutro() == null ? null : comando(e.getOutro());
+			return Fabrica.escolha(e.getSeletor(), e.getChaves(), casos, outro);
+		} else if (comando instanceof Enquanto e) {
+			return new Enquanto(e.getCondicao(), comando(e.getComando()));
+		} else if (comando instanceof Repita r) {
+			return new Repita(r.getVezes(), comando(r.getCorpo()));
+		} else if (comando instanceof Para p) {
+			return para(new Para(p.getSlot(), p.getInicio(), p.getFim(), comando(p.getCorpo())));
+		}
+		return comando;
+	}
+
+	private Comando para(Para p) {
+		final Expressao inicio = p.getInicio();
+		if (Analise.atribuidas(p.getCorpo()).get(p.getSlot()) || !Simplificador.puro(inicio)
+				|| !Analise.seguro(inicio)) {
+			return p;
+		}
+		// Uma temporária por constante k
+		final Map<Integer, Integer> temporarias = new LinkedHashMap<>();
+		final Comando corpo = Analise.mapeie(p.getCorpo(), exp -> reduza(exp, p.getSlot(), temporarias));
+		if (temporarias.isEmpty()) {
+			return p;
+		}
+		final List<Comando> antes = new ArrayList<>();
+		final List<Comando> volta = new ArrayList<>();
+		volta.add(corpo);
+		temporarias.forEach((k, slot) -> {
+			antes.add(Fabrica.atribuicao(new int[] { slot },
+					List.of(Fabrica.multiplicacao(inicio, new Inteiro(k)))));
+			volta.add(Fabrica.atribuicao(new int[] { slot },
+					List.of(new ExpSoma(new Id(slot), new Inteiro(k)))));
+		});
+		antes.add(new Para(p.getSlot(), inicio, p.getFim(), new Bloco(volta)));
+		return new Bloco(antes);
+	}
+
+	private Expressao reduza(Expressao exp, int slot, Map<Integer, Integer> temporarias) {
+		if (!(exp instanceof OpBin<?> op)) {
+			return exp;
+		} else if (exp instanceof ExpMult m && fator(m, slot) != null) {
+			return new Id(temporarias.computeIfAbsent(fator(m, slot), k -> variaveis++));
+		}
+		@SuppressWarnings("unchecked")
+		final OpBin<Expressao> bin = (OpBin<Expressao>) op;
+		final Expressao esq = reduza(bin.getEsq(), slot, temporarias);
+		final Expressao dir = reduza(bin.getDir(), slot, temporarias);
+		if (esq == bin.getEsq() && dir == bin.getDir()) {
+			return exp;
+		}
+		return Analise.reconstrua(exp, esq, dir);
+	}
+
+	// k, se a multiplicação é i * k ou k * i
+	private static Integer fator(ExpMult m, int slot) {
+		if (m.getEsq() instanceof Id i && i.getSlot() == slot && m.getDir() instanceof Inteiro k) {
+			return k.getValor();
+		} else if (m.getDir() instanceof Id i && i.getSlot() == slot && m.getEsq() instanceof Inteiro k) {
+			return k.getValor();
+		}
+		return null;
+	}
+}
@@ -0,0 +1,126 @@
+package plp.enquanto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import plp.enquanto.Linguagem.*;
+
+/*
+ * Move para antes de cada laço (enquanto, para, repita) as expressões cujas
+ * variáveis não são atribuídas dentro dele. Cada expressão invariante é
+ * calculada uma vez em uma variável temporária nova, e o laço passa a ler
+ * a temporária. Só são movidas expressões sem leia e que não podem falhar
+ * (divisões apenas por constante diferente de zero), já que o valor é
+ * calculado mesmo que o laço não dê nenhuma volta.
+ */
+public final class Invariantes {
+	private int variaveis;
+
+	private Invariantes(int variaveis) {
+		this.variaveis = variaveis;
+	}
+
+	public static Programa mova(Programa programa) {
+		final Invariantes invariantes = new Invariantes(programa.getVariaveis());
+		final List<Comando> comandos = new ArrayList<>();
+		for (Comando c : programa.getComandos()) {
+			comandos.add(invariantes.comando(c));
+		}
+		return new Programa(comandos, invariantes.variaveis);
+	}
+
+	// Laços internos são tratados primeiro
+	private Comando comando(Comando comando) {
+		if (comando instanceof Bloco b) {
+			final List<Comando> comandos = new ArrayList<>();
+			for (Comando c : b.getComandos()) {
+				comandos.add(comando(c));
+			}
+			return new Bloco(comandos);
+		} else if (comando instanceof Se se) {
+			final List<Comando> ramos = new ArrayList<>();
+			for (Comando c : se.getRamos()) {
+				ramos.add(comando(c));
+			}
+			final Comando senao = se.getSenao() == null ? null : comando(se.getSenao());
+			return new Se(se.getCondicoes(), ramos, senao);
+		} else if (comando instanceof Escolha e) {
+			final Comando[] casos = new Comando[e.getCasos().length];
+			Arrays.setAll(casos, i -> comando(e.getCasos()[i]));
+			final Comando outro = e.getOutro() == null ? null : comando(e.getOutro());
+			return Fabrica.escolha(e.getSeletor(), e.getChaves(), casos, outro);
+		} else if (comando instanceof Enquanto e) {
+			return laco(new Enquanto(e.getCondicao(), comando(e.getComando())));
+		} else if (comando instanceof Repita r) {
+			return laco(new Repita(r.getVezes(), comando(r.getCorpo())));
+		} else if (comando instanceof Para p) {
+			return laco(new Para(p.getSlot(), p.getInicio(), p.getFim(), comando(p.getCorpo())));
+		}
+		return comando;
+	}
+
+	private Comando laco(Comando laco) {
+		final Extracao extracao = new Extracao(Analise.atribuidas(laco));
+		final Comando novo;
+		if (laco instanceof Enquanto e) {
+			novo = new Enquanto(Analise.mapeie(e.getCondicao(), extracao::extraia),
+					Analise.mapeie(e.getComando(), extracao::extraia));
+		} else if (laco instanceof Repita r) {
+			// vezes é avaliado uma única vez
+			novo = new Repita(r.getVezes(), Analise.mapeie(r.getCorpo(), extracao::extraia));
+		} else {
+			// O limite do para é reavaliado a cada volta
+			final Para p = (Para) laco;
+			novo = new Para(p.getSlot(), p.getInicio(), extracao.extraia(p.getFim()),
+					Analise.mapeie(p.getCorpo(), extracao::extraia));
+		}
+		if (extracao.calculos.isEmpty()) {
+			return laco;
+		}
+		final List<Comando> comandos = new ArrayList<>(extracao.calculos);
+		comandos.add(novo);
+		return new Bloco(comandos);
+	}
+
+	private final class Extracao {
+		private final BitSet alteradas;
+		private final List<Atribuicao> calculos = new ArrayList<>();
+		private final List<Expressao> extraidas = new ArrayList<>();
+
+		Extracao(BitSet alteradas) {
+			this.alteradas = alteradas;
+		}
+
+		// Substitui a maior subexpressão invariante por uma temporária
+		Expressao extraia(Expressao exp) {
+			if (!(exp instanceof OpBin<?> op)) {
+				return exp;
+			}
+			if (invariante(exp)) {
+				for (int i = 0; i < extraidas.size(); i++) {
+					if (Simplificador.iguais(extraidas.get(i), exp)) {
+						return new Id(calculos.get(i).getSlots()[0]);
+					}
+				}
+				final int slot = variaveis++;
+				extraidas.add(exp);
+				calculos.add(Fabrica.atribuicao(new int[] { slot }, List.of(exp)));
+				return new Id(slot);
+			}
+			@SuppressWarnings("unchecked")
+			final OpBin<Expressao> bin = (OpBin<Expressao>) op;
+			final Expressao esq = extraia(bin.getEsq());
+			final Expressao dir = extraia(bin.getDir());
+			if (esq == bin.getEsq() && dir == bin.getDir()) {
+				return exp;
+			}
+			return Analise.reconstrua(exp, esq, dir);
+		}
+
+		private boolean invariante(Expressao exp) {
+			return !Analise.le(exp, alteradas) && Simplificador.puro(exp) && Analise.seguro(exp);
+		}
+	}
+}
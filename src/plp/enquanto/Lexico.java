@@ -0,0 +1,286 @@
+package plp.enquanto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * Analisador léxico de Sintatico, com as mesmas regras de Enquanto.g4:
+ * palavras-chave ganham de ID quando têm o mesmo tamanho, o maior token
+ * vence, comentários vão de # até o fim da linha e TEXTO termina nas
+ * próximas aspas. Qualquer caractere que o ANTLR não aceitaria é um erro.
+ *
+ * Trabalha direto sobre os bytes UTF-8 do arquivo, em geral mapeado em
+ * memória (Fonte.mapeie), sem objetos por token: tokens são posições em
+ * vetores de int, nomes viram números na tabela de símbolos e INT é
+ * convertido dos próprios bytes. Só o conteúdo de TEXTO vira String,
+ * quando o nó Exiba é criado.
+ */
+final class Lexico {
+	static final int FIM = 0;
+	static final int ID = 1;
+	static final int INT = 2;
+	static final int TEXTO = 3;
+	static final int BOOLEANO = 4;
+
+	// Palavras-chave
+	static final int SE = 10;
+	static final int ENTAO = 11;
+	static final int SENAOSE = 12;
+	static final int SENAO = 13;
+	static final int ENQUANTO = 14;
+	static final int FACA = 15;
+	static final int REPITA = 16;
+	static final int VEZES = 17;
+	static final int PARA = 18;
+	static final int DE = 19;
+	static final int ATE = 20;
+	static final int ESCOLHA = 21;
+	static final int CASO = 22;
+	static final int OUTRO = 23;
+	static final int EXIBA = 24;
+	static final int ESCREVA = 25;
+	static final int SKIP = 26;
+	static final int LEIA = 27;
+	static final int NAO = 28;
+	static final int E = 29;
+	static final int OU = 30;
+	static final int XOR = 31;
+
+	// Símbolos
+	static final int ATRIBUI = 40;
+	static final int VIRGULA = 41;
+	static final int PONTO_VIRGULA = 42;
+	static final int DOIS_PONTOS = 43;
+	static final int ABRE_CHAVE = 44;
+	static final int FECHA_CHAVE = 45;
+	static final int ABRE_PAR = 46;
+	static final int FECHA_PAR = 47;
+	static final int POTENCIA = 48;
+	static final int MULT = 49;
+	static final int DIV = 50;
+	static final int SOMA = 51;
+	static final int SUB = 52;
+	static final int IGUAL = 53;
+	static final int DIFERENTE = 54;
+	static final int MENOR = 55;
+	static final int MENOR_IGUAL = 56;
+	static final int MAIOR = 57;
+	static final int MAIOR_IGUAL = 58;
+
+	private static final String[] PALAVRAS = { "se", "entao", "senaose", "senao", "enquanto", "faca", "repita",
+			"vezes", "para", "de", "ate", "escolha", "caso", "outro", "exiba", "escreva", "skip", "leia", "nao", "e", "ou",
+			"xor" };
+
+	final ByteBuffer fonte;
+
+	/*
+	 * Tokens em vetores paralelos. Em valores fica o símbolo de um ID, o
+	 * número de um INT, 1 ou 0 em BOOLEANO e o fim (depois das aspas) de um
+	 * TEXTO, que começa em inicios.
+	 */
+	int quantidade;
+	int[] tipos;
+	int[] inicios;
+	int[] valores;
+
+	/*
+	 * Tabela de símbolos: cada nome é copiado uma vez e ganha um número.
+	 * As palavras-chave entram primeiro, com o tipo do seu token; os demais
+	 * nomes são ID.
+	 */
+	private byte[][] nomes = new byte[64][];
+	private int[] tiposDosSimbolos = new int[64];
+	private int simbolos;
+	private int[] tabela = new int[128];
+
+	private Lexico(ByteBuffer fonte) {
+		this.fonte = fonte;
+		// Cresce sob demanda: um fonte enorme não reserva tudo de uma vez
+		final int capacidade = Math.min(fonte.limit() / 4, 1 << 16) + 16;
+		tipos = new int[capacidade];
+		inicios = new int[capacidade];
+		valores = new int[capacidade];
+		for (int i = 0; i < PALAVRAS.length; i++) {
+			palavra(PALAVRAS[i], SE + i);
+		}
+		palavra("verdadeiro", BOOLEANO);
+		palavra("falso", BOOLEANO);
+	}
+
+	// Quantos símbolos (palavras-chave incluídas) existem
+	int simbolos() {
+		return simbolos;
+	}
+
+	String texto(int token) {
+		return StandardCharsets.UTF_8.decode(fonte.slice(inicios[token] + 1, valores[token] - inicios[token] - 2)).toString();
+	}
+
+	static Lexico tokens(ByteBuffer fonte) {
+		final Lexico lexico = new Lexico(fonte);
+		lexico.analise();
+		return lexico;
+	}
+
+	private void analise() {
+		final ByteBuffer fonte = this.fonte;
+		final int n = fonte.limit();
+		int i = 0;
+		while (i < n) {
+			final int c = fonte.get(i);
+			final int inicio = i;
+			if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+				i++;
+			} else if (c == '#') {
+				do {
+					if (++i == n) {
+						throw new Sintatico.Erro();
+					}
+				} while (fonte.get(i) != '\n');
+				i++;
+			} else if (c == '"') {
+				// Aspas nunca aparecem dentro de um caractere UTF-8 de mais de um byte
+				do {
+					if (++i == n) {
+						throw new Sintatico.Erro();
+					}
+				} while (fonte.get(i) != '"');
+				i++;
+				adicione(TEXTO, inicio, i);
+			} else if (c >= '0' && c <= '9') {
+				long valor = 0;
+				for (int b; i < n && (b = fonte.get(i)) >= '0' && b <= '9'; i++) {
+					valor = valor * 10 + b - '0';
+					if (valor > Integer.MAX_VALUE) {
+						// Regras falha com NumberFormatException: fica para o ANTLR
+						throw new Sintatico.Erro();
+					}
+				}
+				adicione(INT, inicio, (int) valor);
+			} else if (c >= 'a' && c <= 'z') {
+				int hash = 0;
+				for (int b; i < n && (b = fonte.get(i)) >= 'a' && b <= 'z'; i++) {
+					hash = 31 * hash + b;
+				}
+				final int simbolo = procure(hash, inicio, i);
+				final int tipo = tiposDosSimbolos[simbolo];
+				adicione(tipo, inicio, tipo == BOOLEANO ? (i - inicio == 10 ? 1 : 0) : simbolo);
+			} else {
+				final int d = i + 1 < n ? fonte.get(i + 1) : 0;
+				final int tipo = switch (c) {
+					case ':' -> d == '=' ? ATRIBUI : DOIS_PONTOS;
+					case '<' -> d == '=' ? MENOR_IGUAL : d == '>' ? DIFERENTE : MENOR;
+					case '>' -> d == '=' ? MAIOR_IGUAL : MAIOR;
+					case ',' -> VIRGULA;
+					case ';' -> PONTO_VIRGULA;
+					case '{' -> ABRE_CHAVE;
+					case '}' -> FECHA_CHAVE;
+					case '(' -> ABRE_PAR;
+					case ')' -> FECHA_PAR;
+					case '^' -> POTENCIA;
+					case '*' -> MULT;
+					case '/' -> DIV;
+					case '+' -> SOMA;
+					case '-' -> SUB;
+					case '=' -> IGUAL;
+					default -> throw new Sintatico.Erro();
+				};
+				i += tipo == ATRIBUI || tipo == MENOR_IGUAL || tipo == DIFERENTE || tipo == MAIOR_IGUAL ? 2 : 1;
+				adicione(tipo, inicio, 0);
+			}
+		}
+		adicione(FIM, n, 0);
+	}
+
+	private void adicione(int tipo, int inicio, int valor) {
+		if (quantidade == tipos.length) {
+			tipos = Arrays.copyOf(tipos, quantidade * 2);
+			inicios = Arrays.copyOf(inicios, quantidade * 2);
+			valores = Arrays.copyOf(valores, quantidade * 2);
+		}
+		tipos[quantidade] = tipo;
+		inicios[quantidade] = inicio;
+		valores[quantidade++] = valor;
+	}
+
+	/*
+	 * Tabela aberta com sondagem linear; guarda o número do símbolo mais 1
+	 */
+	private int procure(int hash, int inicio, int fim) {
+		final int mascara = tabela.length - 1;
+		for (int h = espalhe(hash) & mascara;; h = (h + 1) & mascara) {
+			final int entrada = tabela[h];
+			if (entrada == 0) {
+				final byte[] nome = new byte[fim - inicio];
+				fonte.get(inicio, nome);
+				return simbolo(nome, hash, h, ID);
+			}
+			final byte[] nome = nomes[entrada - 1];
+			if (igual(nome, inicio, fim)) {
+				return entrada - 1;
+			}
+		}
+	}
+
+	private void palavra(String palavra, int tipo) {
+		final byte[] nome = palavra.getBytes(StandardCharsets.US_ASCII);
+		final int hash = hash(nome);
+		final int mascara = tabela.length - 1;
+		int h = espalhe(hash) & mascara;
+		while (tabela[h] != 0) {
+			h = (h + 1) & mascara;
+		}
+		simbolo(nome, hash, h, tipo);
+	}
+
+	private int simbolo(byte[] nome, int hash, int h, int tipo) {
+		if (simbolos == nomes.length) {
+			nomes = Arrays.copyOf(nomes, simbolos * 2);
+			tiposDosSimbolos = Arrays.copyOf(tiposDosSimbolos, simbolos * 2);
+		}
+		nomes[simbolos] = nome;
+		tiposDosSimbolos[simbolos] = tipo;
+		tabela[h] = ++simbolos;
+		if (simbolos * 2 > tabela.length) {
+			aumente();
+		}
+		return simbolos - 1;
+	}
+
+	private void aumente() {
+		tabela = new int[tabela.length * 2];
+		final int mascara = tabela.length - 1;
+		for (int s = 0; s < simbolos; s++) {
+			int h = espalhe(hash(nomes[s])) & mascara;
+			while (tabela[h] != 0) {
+				h = (h + 1) & mascara;
+			}
+			tabela[h] = s + 1;
+		}
+	}
+
+	private boolean igual(byte[] nome, int inicio, int fim) {
+		if (nome.length != fim - inicio) {
+			return false;
+		}
+		for (int i = 0; i < nome.length; i++) {
+			if (nome[i] != fonte.get(inicio + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int hash(byte[] nome) {
+		int hash = 0;
+		for (byte b : nome) {
+			hash = 31 * hash + b;
+		}
+		return hash;
+	}
+
+	private static int espalhe(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+}
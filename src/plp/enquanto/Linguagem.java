@@ -3,10 +3,35 @@ package plp.enquanto;
 import java.util.*;
 import java.io.IOException;
 
-interface Linguagem {
-	Map<String, Integer> ambiente = new HashMap<>();
+public interface Linguagem {
+	Memoria memoria = new Memoria();
 	Scanner scanner = new Scanner(System.in);
 
+	/*
+	 * Cada variável ocupa uma posição fixa (slot), resolvida por Regras
+	 * durante a construção da árvore.
+	 */
+	class Memoria {
+		int[] valores = new int[0];
+
+		public int[] getValores() {
+			return valores;
+		}
+
+		public void aloque(int tamanho) {
+			if (valores.length < tamanho) {
+				valores = Arrays.copyOf(valores, tamanho);
+			}
+		}
+
+		// Zera os slots a partir de inicio (temporários de uma execução anterior)
+		public void limpe(int inicio) {
+			if (inicio < valores.length) {
+				Arrays.fill(valores, inicio, valores.length, 0);
+			}
+		}
+	}
+
 	interface Bool {
 		boolean getValor();
 	}
@@ -24,12 +49,23 @@ interface Linguagem {
 	 */
 	class Programa {
 		private final List<Comando> comandos;
+		private final int variaveis;
 
-		public Programa(List<Comando> comandos) {
+		public Programa(List<Comando> comandos, int variaveis) {
 			this.comandos = comandos;
+			this.variaveis = variaveis;
+		}
+
+		public List<Comando> getComandos() {
+			return comandos;
+		}
+
+		public int getVariaveis() {
+			return variaveis;
 		}
 
 		public void execute() {
+			memoria.aloque(variaveis);
 			comandos.forEach(Comando::execute);
 		}
 	}
@@ -45,6 +81,18 @@ interface Linguagem {
 			this.senao = senao;
 		}
 
+		public List<Bool> getCondicoes() {
+			return condicoes;
+		}
+
+		public List<Comando> getRamos() {
+			return ramos;
+		}
+
+		public Comando getSenao() {
+			return senao;
+		}
+
 		@Override
 		public void execute() {
 			for (int i = 0; i < condicoes.size(); i++) {
@@ -74,6 +122,10 @@ interface Linguagem {
 			this.exp = exp;
 		}
 
+		public Expressao getExp() {
+			return exp;
+		}
+
 		@Override
 		public void execute() {
 			System.out.println(exp.getValor());
@@ -89,6 +141,14 @@ interface Linguagem {
 			this.comando = comando;
 		}
 
+		public Bool getCondicao() {
+			return condicao;
+		}
+
+		public Comando getComando() {
+			return comando;
+		}
+
 		@Override
 		public void execute() {
 			while (condicao.getValor()) {
@@ -106,6 +166,14 @@ interface Linguagem {
 			this.corpo = corpo;
 		}
 
+		public Expressao getVezes() {
+			return vezes;
+		}
+
+		public Comando getCorpo() {
+			return corpo;
+		}
+
 		@Override
 		public void execute() {
 			int n = vezes.getValor();
@@ -116,50 +184,123 @@ interface Linguagem {
 	}
 
 	class Para implements Comando {
-		private final String id;
+		private final int slot;
 		private final Expressao inicio;
 		private final Expressao fim;
 		private final Comando corpo;
 
-		Para(String id, Expressao inicio, Expressao fim, Comando corpo) {
-			this.id = id;
+		Para(int slot, Expressao inicio, Expressao fim, Comando corpo) {
+			this.slot = slot;
 			this.inicio = inicio;
 			this.fim = fim;
 			this.corpo = corpo;
 		}
 
+		public int getSlot() {
+			return slot;
+		}
+
+		public Expressao getInicio() {
+			return inicio;
+		}
+
+		public Expressao getFim() {
+			return fim;
+		}
+
+		public Comando getCorpo() {
+			return corpo;
+		}
+
 		@Override
 		public void execute() {
 			for (int i = inicio.getValor(); i <= fim.getValor(); i++) {
-				ambiente.put(id, i);
+				memoria.valores[slot] = i;
 				corpo.execute();
 			}
 		}
 	}
 
+	/*
+	 * Chaves ordenadas e sem repetição, com busca binária. Fabrica.escolha
+	 * troca por EscolhaDensa quando as chaves ocupam bem o intervalo.
+	 */
 	class Escolha implements Comando {
 		private final Expressao seletor;
-		private final Map<Integer, Comando> casos;
+		private final int[] chaves;
+		private final Comando[] casos;
 		private final Comando outro;
 
-		Escolha(Expressao seletor, Map<Integer, Comando> casos, Comando outro) {
+		Escolha(Expressao seletor, int[] chaves, Comando[] casos, Comando outro) {
 			this.seletor = seletor;
+			this.chaves = chaves;
 			this.casos = casos;
 			this.outro = outro;
 		}
 
+		public Expressao getSeletor() {
+			return seletor;
+		}
+
+		public int[] getChaves() {
+			return chaves;
+		}
+
+		// casos[i] corresponde a chaves[i]
+		public Comando[] getCasos() {
+			return casos;
+		}
+
+		public Comando getOutro() {
+			return outro;
+		}
+
 		@Override
 		public void execute() {
-			int valor = seletor.getValor();
-			Comando cmd = casos.get(valor);
-			if (cmd != null) {
-				cmd.execute();
+			int i = Arrays.binarySearch(chaves, seletor.getValor());
+			if (i >= 0) {
+				casos[i].execute();
 			} else if (outro != null) {
 				outro.execute();
 			}
 		}
 	}
 
+	// Tabela indexada por valor - menor chave; posições vazias vão para outro
+	class EscolhaDensa extends Escolha {
+		private final int menor;
+		private final Comando[] tabela;
+
+		EscolhaDensa(Expressao seletor, int[] chaves, Comando[] casos, Comando outro) {
+			super(seletor, chaves, casos, outro);
+			menor = chaves[0];
+			tabela = new Comando[chaves[chaves.length - 1] - menor + 1];
+			for (int i = 0; i < chaves.length; i++) {
+				tabela[chaves[i] - menor] = casos[i];
+			}
+		}
+
+		public int getMenor() {
+			return menor;
+		}
+
+		// Comando de cada valor a partir de getMenor(), ou null para outro
+		public Comando[] getTabela() {
+			return tabela;
+		}
+
+		@Override
+		public void execute() {
+			final int i = getSeletor().getValor() - menor;
+			final Comando cmd = i >= 0 && i < tabela.length ? tabela[i] : null;
+			if (cmd != null) {
+				cmd.execute();
+			} else if (getOutro() != null) {
+				getOutro().execute();
+			}
+		}
+	}
+
 	class Exiba implements Comando {
 		private final String texto;
 
@@ -167,6 +308,10 @@ interface Linguagem {
 			this.texto = texto;
 		}
 
+		public String getTexto() {
+			return texto;
+		}
+
 		@Override
 		public void execute() {
 			System.out.println(texto);
@@ -180,6 +325,10 @@ interface Linguagem {
 			this.exp = exp;
 		}
 
+		public Expressao getExp() {
+			return exp;
+		}
+
 		@Override
 		public void execute() {
 			System.out.println(exp.getValor());
@@ -193,6 +342,10 @@ interface Linguagem {
 			this.comandos = comandos;
 		}
 
+		public List<Comando> getComandos() {
+			return comandos;
+		}
+
 		@Override
 		public void execute() {
 			comandos.forEach(Comando::execute);
@@ -200,25 +353,37 @@ interface Linguagem {
 	}
 
 	class Atribuicao implements Comando {
-		private final List<String> ids;
+		private final int[] slots;
 		private final List<Expressao> exps;
 
-		Atribuicao(List<String> ids, List<Expressao> exps) {
-			this.ids = ids;
+		Atribuicao(int[] slots, List<Expressao> exps) {
+			this.slots = slots;
 			this.exps = exps;
 		}
 
+		public int[] getSlots() {
+			return slots;
+		}
+
+		public List<Expressao> getExps() {
+			return exps;
+		}
+
 		@Override
 		public void execute() {
 			// CRUCIAL: Avaliar todas expressões ANTES de atribuir
 			// Isso permite a,b := b,a funcionar corretamente
-			List<Integer> valores = new ArrayList<>();
-			for (Expressao exp : exps) {
-				valores.add(exp.getValor());
+			final int[] valores = new int[exps.size()];
+			for (int i = 0; i < valores.length; i++) {
+				valores[i] = exps.get(i).getValor();
 			}
 			// Agora atribuir os valores
-			for (int i = 0; i < ids.size(); i++) {
-				ambiente.put(ids.get(i), valores.get(i));
+			for (int i = 0; i < slots.length; i++) {
+				if (i >= valores.length) {
+					// Atribuição incompleta (recuperada pelo parser)
+					throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + valores.length);
+				}
+				memoria.valores[slots[i]] = valores[i];
 			}
 		}
 	}
@@ -235,6 +400,14 @@ interface Linguagem {
 			this.esq = esq;
 			this.dir = dir;
 		}
+
+		public T getEsq() {
+			return esq;
+		}
+
+		public T getDir() {
+			return dir;
+		}
 	}
 
 	abstract class OpUnaria<T> {
@@ -243,6 +416,10 @@ interface Linguagem {
 		OpUnaria(T operando) {
 			this.operando = operando;
 		}
+
+		public T getOperando() {
+			return operando;
+		}
 	}
 
 	class Inteiro implements Expressao {
@@ -259,15 +436,19 @@ interface Linguagem {
 	}
 
 	class Id implements Expressao {
-		private final String id;
+		private final int slot;
 
-		Id(String id) {
-			this.id = id;
+		Id(int slot) {
+			this.slot = slot;
+		}
+
+		public int getSlot() {
+			return slot;
 		}
 
 		@Override
 		public int getValor() {
-			return ambiente.getOrDefault(id, 0);
+			return memoria.valores[slot];
 		}
 	}
 
@@ -331,7 +512,33 @@ interface Linguagem {
 
 		@Override
 		public int getValor() {
-			return (int) Math.pow(esq.getValor(), dir.getValor());
+			return potencia(esq.getValor(), dir.getValor());
+		}
+
+		/*
+		 * Potência exata por quadrados sucessivos, com o estouro de int. Com
+		 * expoente negativo só 1 e -1 dão resultado inteiro; as demais bases
+		 * dão 0, e a base 0 dá Integer.MAX_VALUE, como o infinito de Math.pow
+		 * convertido para int.
+		 */
+		public static int potencia(int base, int expoente) {
+			if (expoente < 0) {
+				if (base == 0) {
+					return Integer.MAX_VALUE;
+				} else if (base == 1 || base == -1) {
+					return (expoente & 1) == 0 ? 1 : base;
+				}
+				return 0;
+			}
+			int resultado = 1;
+			while (expoente != 0) {
+				if ((expoente & 1) != 0) {
+					resultado *= base;
+				}
+				base *= base;
+				expoente >>>= 1;
+			}
+			return resultado;
 		}
 	}
 
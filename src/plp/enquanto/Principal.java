@@ -1,19 +1,56 @@
 package plp.enquanto;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Collectors;
 
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.atn.DecisionInfo;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
+import plp.enquanto.Linguagem.Comando;
 import plp.enquanto.Linguagem.Programa;
+import plp.enquanto.exato.Exato;
+import plp.enquanto.fechamento.Fechamentos;
+import plp.enquanto.ir.Baixa;
+import plp.enquanto.ir.Construtor;
+import plp.enquanto.ir.Gerenciador;
+import plp.enquanto.jvm.Compilador;
+import plp.enquanto.vm.Maquina;
+import plp.enquanto.vm.Tradutor;
 import plp.enquanto.parser.EnquantoLexer;
 import plp.enquanto.parser.EnquantoParser;
 
+import static plp.enquanto.Linguagem.memoria;
+import static plp.enquanto.Linguagem.scanner;
+
 public class Principal {
+	// Passos sobre a forma SSA do motor "ir"
+	private static Gerenciador passos = Gerenciador.padrao();
+	// --estatisticas: relatório da análise sintática na saída de erro
+	private static boolean estatisticas = false;
+	// --analisador=antlr: só o ANTLR, sem o analisador escrito à mão
+	private static boolean antlr = false;
 
 	private static ParseTree parse(String arq) {
 		CharStream input;
@@ -22,27 +59,319 @@ public class Principal {
 		} catch (IOException e) {
 			input = CharStreams.fromString("exiba \"Arquivo não encontrado.\"");
 		}
+		return parse(input);
+	}
+
+	static ParseTree parse(CharStream input) {
+		return parse(input, new BaseErrorListener());
+	}
+
+	/*
+	 * Análise em dois estágios: primeiro com previsão SLL, que é mais rápida
+	 * e basta para quase todo programa válido, desistindo no primeiro erro;
+	 * só se ela falhar a entrada é analisada de novo com LL completo e
+	 * recuperação de erros, que mostra as mensagens. erros é avisado dos
+	 * erros de sintaxe, além do console.
+	 */
+	static ParseTree parse(CharStream input, ANTLRErrorListener erros) {
+		final long inicio = System.nanoTime();
 		final EnquantoLexer lexer = new EnquantoLexer(input);
+		lexer.addErrorListener(erros);
 		final CommonTokenStream tokens = new CommonTokenStream(lexer);
 		final EnquantoParser parser = new EnquantoParser(tokens);
-		return parser.programa();
+		parser.setProfile(estatisticas);
+		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		parser.removeErrorListeners();
+		parser.setErrorHandler(new BailErrorStrategy());
+		ParseTree tree;
+		boolean refeita = false;
+		try {
+			tree = parser.programa();
+		} catch (ParseCancellationException e) {
+			refeita = true;
+			parser.reset();
+			parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+			parser.addErrorListener(erros);
+			parser.setErrorHandler(new DefaultErrorStrategy());
+			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+			tree = parser.programa();
+		}
+		if (estatisticas) {
+			relate(parser, refeita, System.nanoTime() - inicio);
+		}
+		return tree;
+	}
+
+	private static void relate(EnquantoParser parser, boolean refeita, long nanos) {
+		long previsoes = 0;
+		long recorreram = 0;
+		long vezes = 0;
+		for (DecisionInfo decisao : parser.getParseInfo().getDecisionInfo()) {
+			previsoes += decisao.invocations;
+			if (decisao.LL_Fallback > 0) {
+				recorreram++;
+				vezes += decisao.LL_Fallback;
+			}
+		}
+		System.err.printf("análise: %s em %.2f ms%n", refeita ? "SLL falhou, refeita com LL" : "SLL", nanos / 1e6);
+		System.err.printf("decisões: %d previsões; %d de %d decisões recorreram ao LL completo (%d vezes)%n",
+				previsoes, recorreram, parser.getParseInfo().getDecisionInfo().length, vezes);
+	}
+
+	static Programa construa(ParseTree tree) {
+		return (Programa) new Regras().visit(tree);
+	}
+
+	/*
+	 * Com o cache, um fonte já visto é lido sem passar por nenhum dos
+	 * analisadores. Só programas sem erros de sintaxe são guardados, para
+	 * que as mensagens de erro continuem aparecendo.
+	 */
+	private static Programa construa(String arq, Cache cache) {
+		final ByteBuffer fonte;
+		try {
+			fonte = Fonte.mapeie(Path.of(arq));
+		} catch (IOException | InvalidPathException e) {
+			// parse(arq) mostra a mensagem de arquivo não encontrado
+			return construa(parse(arq));
+		}
+		final Programa guardado = cache == null ? null : cache.leia(fonte);
+		if (guardado != null) {
+			return guardado;
+		}
+		final boolean[] errou = { false };
+		final Programa programa = construa(fonte, new BaseErrorListener() {
+			@Override
+			public void syntaxError(Recognizer<?, ?> recognizer, Object simbolo, int linha, int coluna,
+					String mensagem, RecognitionException e) {
+				errou[0] = true;
+			}
+		});
+		if (cache != null && !errou[0]) {
+			cache.grave(fonte, programa);
+		}
+		return programa;
+	}
+
+	/*
+	 * O analisador escrito à mão (Sintatico) constrói a árvore direto dos
+	 * tokens. Ele não recupera erros: em qualquer erro o fonte é analisado
+	 * de novo pelo ANTLR, que mostra as mensagens e avisa erros.
+	 */
+	static Programa construa(ByteBuffer fonte, ANTLRErrorListener erros) {
+		if (!antlr) {
+			final long inicio = System.nanoTime();
+			try {
+				final Programa programa = Sintatico.analise(fonte);
+				if (estatisticas) {
+					System.err.printf("análise: Sintatico em %.2f ms%n", (System.nanoTime() - inicio) / 1e6);
+				}
+				return programa;
+			} catch (Sintatico.Erro e) {
+				if (estatisticas) {
+					System.err.println("análise: Sintatico falhou, refeita com o ANTLR");
+				}
+			}
+		}
+		return construa(parse(Fonte.de(fonte, null), erros));
+	}
+
+	/*
+	 * Motores: "camadas" (padrão: árvore, com laços quentes compilados),
+	 * "arvore" (só o interpretador), "fechamentos" (funções pré-ligadas),
+	 * "vm" (máquina de registradores), "ir" (forma SSA otimizada, traduzida
+	 * para a máquina de registradores), "jvm" (bytecode em classe oculta) e
+	 * "exato" (sem estouro, escolhido por --exato)
+	 */
+	private static Comando prepare(Programa programa, String motor) {
+		return switch (motor) {
+			case "camadas" -> Camadas.prepare(programa);
+			case "arvore" -> programa::execute;
+			case "fechamentos" -> Fechamentos.compile(programa);
+			case "vm" -> new Maquina(Tradutor.traduza(programa));
+			case "ir" -> new Maquina(Baixa.baixe(passos.execute(Construtor.construa(programa))));
+			case "jvm" -> jvm(programa);
+			case "exato" -> Exato.compile(programa);
+			default -> throw new IllegalArgumentException("Motor desconhecido: " + motor);
+		};
+	}
+
+	private static Comando jvm(Programa programa) {
+		try {
+			return Compilador.compile(programa);
+		} catch (IllegalArgumentException e) {
+			// Programas que não cabem em um método da JVM ficam no interpretador
+			return programa::execute;
+		}
+	}
+
+	/*
+	 * No modo interativo as variáveis continuam vivas depois do programa,
+	 * então atribuições sem leitura não são removidas
+	 */
+	static Programa otimize(Programa programa, boolean interativo) {
+		programa = Simplificador.simplifique(programa);
+		programa = Eliminacao.elimine(programa, !interativo);
+		programa = Invariantes.mova(programa);
+		return Inducoes.reduza(programa);
+	}
+
+	/*
+	 * Entradas dadas na linha de comando que a especialização não consumiu
+	 * são lidas antes da entrada padrão. Precisa acontecer antes do primeiro
+	 * acesso a Linguagem.scanner, que guarda o System.in da inicialização.
+	 */
+	private static void forneca(Deque<Integer> entradas) {
+		if (!entradas.isEmpty()) {
+			final String texto = entradas.stream().map(String::valueOf).collect(Collectors.joining("\n", "", "\n"));
+			System.setIn(new SequenceInputStream(
+					new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8)), System.in));
+		}
+	}
+
+	/*
+	 * Modo interativo: cada linha é um programa executado sobre a mesma
+	 * memória. Regras é mantido entre as linhas, então variáveis novas
+	 * ganham slots novos e as antigas conservam seus valores.
+	 */
+	private static void interativo(String motor, boolean otimize) {
+		final Regras regras = new Regras();
+		System.out.print("> ");
+		while (scanner.hasNextLine()) {
+			final String linha = scanner.nextLine();
+			if (!linha.isBlank()) {
+				Programa programa = (Programa) regras.visit(parse(CharStreams.fromString(linha)));
+				final int variaveis = programa.getVariaveis();
+				if (otimize) {
+					programa = otimize(programa, true);
+				}
+				try {
+					prepare(programa, motor).execute();
+				} catch (RuntimeException e) {
+					System.out.println(e);
+				}
+				// Temporários não podem virar o valor inicial de uma variável nova
+				memoria.limpe(variaveis);
+			}
+			System.out.print("> ");
+		}
+	}
+
+	/*
+	 * Análise, construção, otimizações e interpretadores são recursivos na
+	 * profundidade do programa. Cadeias longas de operadores associativos já
+	 * saem equilibradas de Fabrica, mas aninhamentos fundos (parênteses,
+	 * blocos, / e ^ em sequência) ainda precisam de pilha: tudo roda em uma
+	 * thread com PILHA bytes, reservados pelo sistema só conforme são usados,
+	 * sem depender de -Xss. Exceções voltam para a thread que chamou.
+	 */
+	static final long PILHA = 1L << 30;
+
+	interface Tarefa<E extends Exception> {
+		void execute() throws E;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <E extends Exception> void naPilhaGrande(Tarefa<E> tarefa) throws E {
+		final Throwable[] erro = { null };
+		final Thread thread = new Thread(null, () -> {
+			try {
+				tarefa.execute();
+			} catch (Throwable e) {
+				erro[0] = e;
+			}
+		}, "while", PILHA);
+		thread.start();
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			thread.interrupt();
+		}
+		if (erro[0] instanceof RuntimeException e) {
+			throw e;
+		} else if (erro[0] instanceof Error e) {
+			throw e;
+		} else if (erro[0] != null) {
+			throw (E) erro[0];
+		}
 	}
 
 	public static void main(final String ... args) {
-		final String arq;
-		if (args.length > 0) {
-			arq = args[0];
-		} else {
+		naPilhaGrande(() -> principal(args));
+	}
+
+	private static void principal(final String ... args) {
+		String arq = null;
+		String motor = "camadas";
+		boolean otimize = true;
+		boolean interativo = false;
+		boolean exato = false;
+		Deque<Integer> entradas = null;
+		boolean cache = true;
+		for (String arg : args) {
+			if (arg.startsWith("--motor=")) {
+				motor = arg.substring("--motor=".length());
+			} else if (arg.equals("--sem-otimizacoes")) {
+				otimize = false;
+				passos = new Gerenciador(List.of());
+			} else if (arg.startsWith("--passos=")) {
+				passos = Gerenciador.de(arg.substring("--passos=".length()));
+			} else if (arg.equals("--interativo")) {
+				interativo = true;
+			} else if (arg.equals("--exato")) {
+				exato = true;
+			} else if (arg.equals("--estatisticas")) {
+				estatisticas = true;
+			} else if (arg.startsWith("--analisador=")) {
+				antlr = switch (arg.substring("--analisador=".length())) {
+					case "pratt" -> false;
+					case "antlr" -> true;
+					default -> throw new IllegalArgumentException("Analisador desconhecido: " + arg);
+				};
+			} else if (arg.equals("--sem-cache")) {
+				cache = false;
+			} else if (arg.startsWith("--entradas=")) {
+				entradas = new ArrayDeque<>();
+				for (String valor : arg.substring("--entradas=".length()).split(",")) {
+					if (!valor.isBlank()) {
+						entradas.add(Integer.parseInt(valor.strip()));
+					}
+				}
+			} else {
+				arq = arg;
+			}
+		}
+		if (exato) {
+			// As otimizações dobram constantes com a aritmética de int
+			motor = "exato";
+			otimize = false;
+		}
+		if (interativo) {
+			if (motor.equals("ir")) {
+				// Uma linha que falhasse perderia todas as suas atribuições
+				throw new IllegalArgumentException("O motor ir não funciona com --interativo");
+			}
+			interativo(motor, otimize);
+			return;
+		}
+		if (arq == null) {
 			System.out.print("Qual o arquivo para executar? ");
 			Scanner scanner = new Scanner(System.in);
 			arq = scanner.nextLine();
 			scanner.close();
 		}
-		final ParseTree tree = parse(arq);
-		final ParseTreeWalker walker = new ParseTreeWalker();
-		final Regras regras = new Regras();
-		walker.walk(regras, tree);
-		Programa programa = regras.getPrograma();
-		programa.execute();
+		Programa programa = construa(arq, cache ? Cache.padrao() : null);
+		if (entradas != null) {
+			// No modo exato os valores não cabem na aritmética de int da especialização
+			if (!exato) {
+				programa = Especializador.especialize(programa, entradas);
+			}
+			forneca(entradas);
+		}
+		if (otimize) {
+			programa = otimize(programa, false);
+		}
+		prepare(programa, motor).execute();
 	}
 }
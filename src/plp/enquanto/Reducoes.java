@@ -0,0 +1,78 @@
+package plp.enquanto;
+
+import plp.enquanto.Linguagem.*;
+
+/*
+ * Multiplicações e divisões por constante com operações mais baratas,
+ * criadas por Fabrica. Os nós continuam sendo ExpMult e ExpDiv com os
+ * operandos originais, então os demais motores e as otimizações os tratam
+ * como antes; só getValor() muda. Todas dão exatamente o resultado de
+ * * e / do Java, inclusive com estouro e com Integer.MIN_VALUE.
+ */
+final class Reducoes {
+	private Reducoes() {
+	}
+
+	// x * 2^s = x << s
+	static final class Deslocamento extends ExpMult {
+		private final Expressao operando;
+		private final int s;
+
+		Deslocamento(Expressao esq, Expressao dir, Expressao operando, int s) {
+			super(esq, dir);
+			this.operando = operando;
+			this.s = s;
+		}
+
+		@Override
+		public int getValor() {
+			return operando.getValor() << s;
+		}
+	}
+
+	// x / ±2^s: negativos somam 2^s - 1 antes do deslocamento, para truncar em direção a zero
+	static final class DivisaoPotencia extends ExpDiv {
+		private final int s;
+		private final boolean negativo;
+
+		DivisaoPotencia(Expressao esq, Expressao dir, int s, boolean negativo) {
+			super(esq, dir);
+			this.s = s;
+			this.negativo = negativo;
+		}
+
+		@Override
+		public int getValor() {
+			final int x = esq.getValor();
+			final int q = (x + ((x >> 31) >>> (32 - s))) >> s;
+			return negativo ? -q : q;
+		}
+	}
+
+	/*
+	 * x / d pela parte alta de x * m (Granlund e Montgomery): com
+	 * l = ceil(log2 |d|), k = 31 + l e m = floor(2^k / |d|) + 1, o produto
+	 * cabe em um long e (x * m) >> k é floor(x / |d|); somar 1 aos
+	 * negativos trunca em direção a zero.
+	 */
+	static final class DivisaoMagica extends ExpDiv {
+		private final long m;
+		private final int k;
+		private final boolean negativo;
+
+		DivisaoMagica(Expressao esq, Expressao dir, int divisor) {
+			super(esq, dir);
+			final int d = Math.abs(divisor);
+			k = 31 + 32 - Integer.numberOfLeadingZeros(d - 1);
+			m = (1L << k) / d + 1;
+			negativo = divisor < 0;
+		}
+
+		@Override
+		public int getValor() {
+			final int x = esq.getValor();
+			final int q = (int) ((x * m) >> k) + (x >>> 31);
+			return negativo ? -q : q;
+		}
+	}
+}
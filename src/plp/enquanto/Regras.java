@@ -1,249 +1,328 @@
 package plp.enquanto;
 
 import java.util.*;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import plp.enquanto.Linguagem.*;
-import plp.enquanto.parser.EnquantoBaseListener;
+import plp.enquanto.parser.EnquantoBaseVisitor;
 import plp.enquanto.parser.EnquantoParser.*;
 
 import static java.lang.Integer.parseInt;
 
-public class Regras extends EnquantoBaseListener {
+/*
+ * Constrói a árvore de Linguagem visitando a árvore sintática: cada visita
+ * devolve o nó pronto. Os filhos são visitados na ordem do fonte, a mesma
+ * em que o antigo listener saía dos nós, para que os slots não mudem; e
+ * cada contexto perde os filhos depois de visitado, então a árvore do
+ * ANTLR vai sendo liberada enquanto a de Linguagem cresce.
+ */
+public class Regras extends EnquantoBaseVisitor<Object> {
 	private final Leia leia;
 	private final Skip skip;
-	private final Propriedades valores;
-
-	private Programa programa;
+	private final Ambiente variaveis;
 
 	public Regras() {
 		leia = new Leia();
 		skip = new Skip();
-		valores = new Propriedades();
+		variaveis = new Ambiente();
+	}
+
+	// Cada identificador recebe um slot fixo na memória na primeira vez em que aparece
+	private int slot(String id) {
+		return variaveis.pegueOuColoque(id.intern(), variaveis.tamanho());
+	}
+
+	// Filhos que faltam em árvores com erro de sintaxe viram null
+	@SuppressWarnings(value = "unchecked")
+	private <T> T valor(ParseTree no) {
+		if (no == null) {
+			return null;
+		}
+		final T valor = (T) visit(no);
+		if (no instanceof ParserRuleContext ctx) {
+			ctx.children = null;
+		}
+		return valor;
+	}
+
+	@Override
+	public Programa visitPrograma(ProgramaContext ctx) {
+		final List<Comando> cmds = valor(ctx.seqComando());
+		return new Programa(cmds, variaveis.tamanho());
 	}
 
-	public Programa getPrograma() {
-		return programa;
+	@Override
+	public List<Comando> visitSeqComando(SeqComandoContext ctx) {
+		final List<Comando> comandos = new ArrayList<>();
+		for (ComandoContext c : ctx.comando()) {
+			comandos.add(valor(c));
+		}
+		return comandos;
 	}
 
 	@Override
-	public void exitBool(BoolContext ctx) {
-		valores.insira(ctx, new Booleano("verdadeiro".equals(ctx.getText())));
+	public Bool visitBool(BoolContext ctx) {
+		return new Booleano("verdadeiro".equals(ctx.getText()));
 	}
 
 	@Override
-	public void exitLeia(LeiaContext ctx) {
-		valores.insira(ctx, leia);
+	public Expressao visitLeia(LeiaContext ctx) {
+		return leia;
 	}
 
 	@Override
-	public void exitSe(SeContext ctx) {
+	public Comando visitSe(SeContext ctx) {
 		List<Bool> condicoes = new ArrayList<>();
 		List<Comando> ramos = new ArrayList<>();
 
-		// Coletar todas as condições booleanas (se + senaoses)
-		for (int i = 0; i < ctx.booleano().size(); i++) {
-			condicoes.add(valores.pegue(ctx.booleano(i)));
-		}
-
-		// Coletar todos os ramos de comando (entao + entao dos senaoses, exceto senao)
+		// Condição e ramo de cada se/senaose, na ordem do fonte
 		int numRamos = ctx.booleano().size();
 		for (int i = 0; i < numRamos; i++) {
-			ramos.add(valores.pegue(ctx.comando(i)));
+			condicoes.add(valor(ctx.booleano(i)));
+			ramos.add(valor(ctx.comando(i)));
 		}
 
 		// Senao opcional (se houver mais comandos que condições)
 		Comando senao = null;
 		if (ctx.comando().size() > numRamos) {
-			senao = valores.pegue(ctx.comando(numRamos));
+			senao = valor(ctx.comando(numRamos));
 		}
 
-		valores.insira(ctx, new Se(condicoes, ramos, senao));
-	}
-
-	@Override
-	public void exitInteiro(InteiroContext ctx) {
-		valores.insira(ctx, new Inteiro(parseInt(ctx.getText())));
+		return new Se(condicoes, ramos, senao);
 	}
 
 	@Override
-	public void exitSkip(SkipContext ctx) {
-		valores.insira(ctx, skip);
+	public Expressao visitInteiro(InteiroContext ctx) {
+		return new Inteiro(parseInt(ctx.getText()));
 	}
 
 	@Override
-	public void exitEscreva(EscrevaContext ctx) {
-		final Expressao exp = valores.pegue(ctx.expressao());
-		valores.insira(ctx, new Escreva(exp));
+	public Comando visitSkip(SkipContext ctx) {
+		return skip;
 	}
 
 	@Override
-	public void exitPrograma(ProgramaContext ctx) {
-		final List<Comando> cmds = valores.pegue(ctx.seqComando());
-		programa = new Programa(cmds);
-		valores.insira(ctx, programa);
+	public Comando visitEscreva(EscrevaContext ctx) {
+		final Expressao exp = valor(ctx.expressao());
+		return new Escreva(exp);
 	}
 
 	@Override
-	public void exitId(IdContext ctx) {
+	public Expressao visitId(IdContext ctx) {
 		final String id = ctx.ID().getText();
-		valores.insira(ctx, new Id(id));
+		return new Id(slot(id));
 	}
 
 	@Override
-	public void exitSeqComando(SeqComandoContext ctx) {
-		final List<Comando> comandos = new ArrayList<>();
-		for (ComandoContext c : ctx.comando()) {
-			comandos.add(valores.pegue(c));
-		}
-		valores.insira(ctx, comandos);
-	}
-
-	@Override
-	public void exitAtribuicao(AtribuicaoContext ctx) {
-		List<String> ids = new ArrayList<>();
-		for (TerminalNode node : ctx.ID()) {
-			ids.add(node.getText());
-		}
-
+	public Comando visitAtribuicao(AtribuicaoContext ctx) {
 		List<Expressao> exps = new ArrayList<>();
 		for (ExpressaoContext exp : ctx.expressao()) {
-			exps.add(valores.pegue(exp));
+			exps.add(valor(exp));
 		}
 
-		valores.insira(ctx, new Atribuicao(ids, exps));
+		// Os alvos recebem slots depois das variáveis das expressões
+		final List<TerminalNode> ids = ctx.ID();
+		final int[] slots = new int[ids.size()];
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = slot(ids.get(i).getText());
+		}
+
+		return Fabrica.atribuicao(slots, exps);
 	}
 
 	@Override
-	public void exitBloco(BlocoContext ctx) {
-		final List<Comando> cmds = valores.pegue(ctx.seqComando());
-		valores.insira(ctx, new Bloco(cmds));
+	public Comando visitBloco(BlocoContext ctx) {
+		final List<Comando> cmds = valor(ctx.seqComando());
+		return new Bloco(cmds);
 	}
 
 	@Override
-	public void exitOpBin(OpBinContext ctx) {
-		final Expressao esq = valores.pegue(ctx.expressao(0));
-		final Expressao dir = valores.pegue(ctx.expressao(1));
+	public Expressao visitOpBin(OpBinContext ctx) {
+		if (completo(ctx) && !operador(ctx).equals("/") && !operador(ctx).equals("^")) {
+			return cadeia(ctx);
+		}
+		final Expressao esq = valor(ctx.expressao(0));
+		final Expressao dir = valor(ctx.expressao(1));
 		final String op = ctx.getChild(1).getText();
-		final Expressao exp = switch (op) {
-			case "^" -> new ExpPow(esq, dir);
-			case "*" -> new ExpMult(esq, dir);
-			case "/" -> new ExpDiv(esq, dir);
+		return switch (op) {
+			case "^" -> Fabrica.potencia(esq, dir);
+			case "*" -> Fabrica.multiplicacao(esq, dir);
+			case "/" -> Fabrica.divisao(esq, dir);
 			case "-" -> new ExpSub(esq, dir);
 			default -> new ExpSoma(esq, dir);
 		};
-		valores.insira(ctx, exp);
+	}
+
+	/*
+	 * a + b - c + ... e a * b * ... chegam como uma espinha de OpBin à
+	 * esquerda, tão funda quanto a cadeia: ela é percorrida com um laço e
+	 * os termos, visitados na ordem do fonte, vão para Fabrica, que
+	 * equilibra as cadeias longas.
+	 */
+	private Expressao cadeia(OpBinContext ctx) {
+		final boolean somas = !operador(ctx).equals("*");
+		final Deque<OpBinContext> espinha = new ArrayDeque<>();
+		espinha.push(ctx);
+		while (espinha.peek().expressao(0) instanceof OpBinContext esq && completo(esq)
+				&& operador(esq).equals("*") != somas && !operador(esq).equals("/") && !operador(esq).equals("^")) {
+			espinha.push(esq);
+		}
+		final List<Expressao> termos = new ArrayList<>();
+		final BitSet subtrai = new BitSet();
+		termos.add(valor(espinha.peek().expressao(0)));
+		while (!espinha.isEmpty()) {
+			final OpBinContext no = espinha.pop();
+			if (operador(no).equals("-")) {
+				subtrai.set(termos.size());
+			}
+			termos.add(valor(no.expressao(1)));
+			no.children = null;
+		}
+		return somas ? Fabrica.somas(termos, subtrai) : Fabrica.encadeie(termos, Fabrica::multiplicacao);
+	}
+
+	// Árvores com erro de sintaxe podem ter OpBin sem um dos lados
+	private static boolean completo(ParserRuleContext ctx) {
+		return ctx.getChildCount() == 3 && ctx.getChild(0) instanceof ParserRuleContext
+				&& ctx.getChild(2) instanceof ParserRuleContext;
+	}
+
+	private static String operador(OpBinContext ctx) {
+		return ctx.getChild(1).getText();
 	}
 
 	@Override
-	public void exitEnquanto(EnquantoContext ctx) {
-		final Bool condicao = valores.pegue(ctx.booleano());
-		final Comando comando = valores.pegue(ctx.comando());
-		valores.insira(ctx, new Enquanto(condicao, comando));
+	public Comando visitEnquanto(EnquantoContext ctx) {
+		final Bool condicao = valor(ctx.booleano());
+		final Comando comando = valor(ctx.comando());
+		return new Enquanto(condicao, comando);
 	}
 
 	@Override
-	public void exitRepita(RepitaContext ctx) {
-		final Expressao vezes = valores.pegue(ctx.expressao());
-		final Comando corpo = valores.pegue(ctx.comando());
-		valores.insira(ctx, new Repita(vezes, corpo));
+	public Comando visitRepita(RepitaContext ctx) {
+		final Expressao vezes = valor(ctx.expressao());
+		final Comando corpo = valor(ctx.comando());
+		return new Repita(vezes, corpo);
 	}
 
 	@Override
-	public void exitPara(ParaContext ctx) {
-		final String id = ctx.ID().getText();
-		final Expressao inicio = valores.pegue(ctx.expressao(0));
-		final Expressao fim = valores.pegue(ctx.expressao(1));
-		final Comando corpo = valores.pegue(ctx.comando());
-		valores.insira(ctx, new Para(id, inicio, fim, corpo));
+	public Comando visitPara(ParaContext ctx) {
+		final Expressao inicio = valor(ctx.expressao(0));
+		final Expressao fim = valor(ctx.expressao(1));
+		final Comando corpo = valor(ctx.comando());
+		// A variável do laço recebe o slot depois das do corpo
+		final int id = slot(ctx.ID().getText());
+		return new Para(id, inicio, fim, corpo);
 	}
 
 	@Override
-	public void exitEscolha(EscolhaContext ctx) {
-		final Expressao seletor = valores.pegue(ctx.expressao());
+	public Comando visitEscolha(EscolhaContext ctx) {
+		final Expressao seletor = valor(ctx.expressao());
 		final Map<Integer, Comando> casos = new HashMap<>();
 
 		// Coletar todos os valores INT e seus comandos correspondentes
 		final List<TerminalNode> ints = ctx.INT();
 		for (int i = 0; i < ints.size(); i++) {
 			int chave = Integer.parseInt(ints.get(i).getText());
-			Comando cmd = valores.pegue(ctx.comando(i));
+			Comando cmd = valor(ctx.comando(i));
 			casos.put(chave, cmd);
 		}
 
 		// Caso 'outro' opcional
 		Comando outro = null;
 		if (ctx.comando().size() > ints.size()) {
-			outro = valores.pegue(ctx.comando(ints.size()));
+			outro = valor(ctx.comando(ints.size()));
 		}
 
-		valores.insira(ctx, new Escolha(seletor, casos, outro));
+		return Fabrica.escolha(seletor, casos, outro);
 	}
 
 	@Override
-	public void exitELogico(ELogicoContext ctx) {
-		final Bool esq = valores.pegue(ctx.booleano(0));
-		final Bool dir = valores.pegue(ctx.booleano(1));
-		valores.insira(ctx, new ELogico(esq, dir));
+	public Bool visitELogico(ELogicoContext ctx) {
+		if (completo(ctx)) {
+			return Fabrica.encadeie(cadeia(ctx, ELogicoContext.class), ELogico::new);
+		}
+		final Bool esq = valor(ctx.booleano(0));
+		final Bool dir = valor(ctx.booleano(1));
+		return new ELogico(esq, dir);
 	}
 
 	@Override
-	public void exitOuLogico(OuLogicoContext ctx) {
-		final Bool esq = valores.pegue(ctx.booleano(0));
-		final Bool dir = valores.pegue(ctx.booleano(1));
-		valores.insira(ctx, new OuLogico(esq, dir));
+	public Bool visitOuLogico(OuLogicoContext ctx) {
+		if (completo(ctx)) {
+			return Fabrica.encadeie(cadeia(ctx, OuLogicoContext.class), OuLogico::new);
+		}
+		final Bool esq = valor(ctx.booleano(0));
+		final Bool dir = valor(ctx.booleano(1));
+		return new OuLogico(esq, dir);
 	}
 
 	@Override
-	public void exitXorLogico(XorLogicoContext ctx) {
-		final Bool esq = valores.pegue(ctx.booleano(0));
-		final Bool dir = valores.pegue(ctx.booleano(1));
-		valores.insira(ctx, new XorLogico(esq, dir));
+	public Bool visitXorLogico(XorLogicoContext ctx) {
+		if (completo(ctx)) {
+			return Fabrica.encadeie(cadeia(ctx, XorLogicoContext.class), XorLogico::new);
+		}
+		final Bool esq = valor(ctx.booleano(0));
+		final Bool dir = valor(ctx.booleano(1));
+		return new XorLogico(esq, dir);
+	}
+
+	// Termos de uma cadeia de e, ou ou xor, como em cadeia de expressões
+	private <C extends BooleanoContext> List<Bool> cadeia(C ctx, Class<C> tipo) {
+		final Deque<C> espinha = new ArrayDeque<>();
+		espinha.push(ctx);
+		while (tipo.isInstance(espinha.peek().getChild(0)) && completo(tipo.cast(espinha.peek().getChild(0)))) {
+			espinha.push(tipo.cast(espinha.peek().getChild(0)));
+		}
+		final List<Bool> termos = new ArrayList<>();
+		termos.add(valor(espinha.peek().getChild(0)));
+		while (!espinha.isEmpty()) {
+			final C no = espinha.pop();
+			termos.add(valor(no.getChild(2)));
+			no.children = null;
+		}
+		return termos;
 	}
 
 	@Override
-	public void exitBoolPar(BoolParContext ctx) {
-		final Bool booleano = valores.pegue(ctx.booleano());
-		valores.insira(ctx, booleano);
+	public Bool visitBoolPar(BoolParContext ctx) {
+		return valor(ctx.booleano());
 	}
 
 	@Override
-	public void exitNaoLogico(NaoLogicoContext ctx) {
-		final Bool b = valores.pegue(ctx.booleano());
-		valores.insira(ctx, new NaoLogico(b));
+	public Bool visitNaoLogico(NaoLogicoContext ctx) {
+		final Bool b = valor(ctx.booleano());
+		return new NaoLogico(b);
 	}
 
 	@Override
-	public void exitExpPar(ExpParContext ctx) {
-		final Expressao exp = valores.pegue(ctx.expressao());
-		valores.insira(ctx, exp);
+	public Expressao visitExpPar(ExpParContext ctx) {
+		return valor(ctx.expressao());
 	}
 
 	@Override
-	public void exitExibaTexto(ExibaTextoContext ctx) {
+	public Comando visitExibaTexto(ExibaTextoContext ctx) {
 		final String t = ctx.TEXTO().getText();
 		final String texto = t.substring(1, t.length() - 1);
-		valores.insira(ctx, new Exiba(texto));
+		return new Exiba(texto);
 	}
 
 	@Override
-	public void exitExibaExp(ExibaExpContext ctx) {
-		final Expressao exp = valores.pegue(ctx.expressao());
-		valores.insira(ctx, new ExibaExp(exp));
+	public Comando visitExibaExp(ExibaExpContext ctx) {
+		final Expressao exp = valor(ctx.expressao());
+		return new ExibaExp(exp);
 	}
 
 	@Override
-	public void exitOpRel(OpRelContext ctx) {
-		final Expressao esq = valores.pegue(ctx.expressao(0));
-		final Expressao dir = valores.pegue(ctx.expressao(1));
-		final String op = ctx.getChild(1).getText();
-		final Bool exp = switch (op) {
-			case "=" -> new ExpIgual(esq, dir);
-			case "<=" -> new ExpMenorIgual(esq, dir);
-			case "<" -> new ExpMenor(esq, dir);
-			case ">" -> new ExpMaior(esq, dir);
-			case ">=" -> new ExpMaiorIgual(esq, dir);
-			default -> new ExpDiferente(esq, dir); // "<>"
+	public Bool visitOpRel(OpRelContext ctx) {
+		final Expressao esq = valor(ctx.expressao(0));
+		final Expressao dir = valor(ctx.expressao(1));
+		// Operador perdido na recuperação de erros vira <>, e o programa ainda executa
+		final String op = switch (ctx.getChild(1).getText()) {
+			case "=", "<>", "<", "<=", ">", ">=" -> ctx.getChild(1).getText();
+			default -> "<>";
 		};
-		valores.insira(ctx, exp);
+		return Fabrica.relacao(op, esq, dir);
 	}
 }
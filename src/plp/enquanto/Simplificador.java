@@ -0,0 +1,279 @@
+package plp.enquanto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import plp.enquanto.Linguagem.*;
+
+/*
+ * Dobra subárvores constantes em Inteiro/Booleano e aplica identidades
+ * algébricas (x*1, x+0, x-x, nao nao b, verdadeiro e b, ...). As contas
+ * são feitas pelos próprios nós, então o estouro de int é o mesmo da
+ * execução; divisões por zero ficam na árvore para falhar em tempo de
+ * execução. Operandos só são descartados quando não contêm leia nem
+ * podem falhar.
+ */
+public final class Simplificador {
+	private Simplificador() {
+	}
+
+	public static Programa simplifique(Programa programa) {
+		return new Programa(comandos(programa.getComandos()), programa.getVariaveis());
+	}
+
+	/*
+	 * Comandos
+	 */
+	static List<Comando> comandos(List<Comando> comandos) {
+		final List<Comando> novos = new ArrayList<>(comandos.size());
+		for (Comando c : comandos) {
+			novos.add(comando(c));
+		}
+		return novos;
+	}
+
+	static Comando comando(Comando comando) {
+		if (comando instanceof Atribuicao a) {
+			final List<Expressao> exps = new ArrayList<>();
+			for (Expressao e : a.getExps()) {
+				exps.add(expressao(e));
+			}
+			return Fabrica.atribuicao(a.getSlots(), exps);
+		} else if (comando instanceof Bloco b) {
+			return new Bloco(comandos(b.getComandos()));
+		} else if (comando instanceof Se se) {
+			final List<Bool> condicoes = new ArrayList<>();
+			for (Bool b : se.getCondicoes()) {
+				condicoes.add(condicao(b));
+			}
+			final Comando senao = se.getSenao() == null ? null : comando(se.getSenao());
+			return new Se(condicoes, comandos(se.getRamos()), senao);
+		} else if (comando instanceof Enquanto e) {
+			return new Enquanto(condicao(e.getCondicao()), comando(e.getComando()));
+		} else if (comando instanceof Repita r) {
+			return new Repita(expressao(r.getVezes()), comando(r.getCorpo()));
+		} else if (comando instanceof Para p) {
+			return new Para(p.getSlot(), expressao(p.getInicio()), expressao(p.getFim()), comando(p.getCorpo()));
+		} else if (comando instanceof Escolha e) {
+			final Comando[] casos = new Comando[e.getCasos().length];
+			Arrays.setAll(casos, i -> comando(e.getCasos()[i]));
+			final Comando outro = e.getOutro() == null ? null : comando(e.getOutro());
+			return Fabrica.escolha(expressao(e.getSeletor()), e.getChaves(), casos, outro);
+		} else if (comando instanceof ExibaExp e) {
+			return new ExibaExp(expressao(e.getExp()));
+		} else if (comando instanceof Escreva e) {
+			return new Escreva(expressao(e.getExp()));
+		}
+		return comando;
+	}
+
+	/*
+	 * Expressoes
+	 */
+	static Expressao expressao(Expressao exp) {
+		if (exp instanceof ExpSoma op) {
+			return soma(expressao(op.getEsq()), expressao(op.getDir()));
+		} else if (exp instanceof ExpSub op) {
+			return subtracao(expressao(op.getEsq()), expressao(op.getDir()));
+		} else if (exp instanceof ExpMult op) {
+			return multiplicacao(expressao(op.getEsq()), expressao(op.getDir()));
+		} else if (exp instanceof ExpDiv op) {
+			return divisao(expressao(op.getEsq()), expressao(op.getDir()));
+		} else if (exp instanceof ExpPow op) {
+			return potencia(expressao(op.getEsq()), expressao(op.getDir()));
+		}
+		return exp;
+	}
+
+	private static Expressao soma(Expressao esq, Expressao dir) {
+		if (esq instanceof Inteiro && dir instanceof Inteiro) {
+			return dobre(new ExpSoma(esq, dir));
+		} else if (zero(esq)) {
+			return dir;
+		} else if (esq instanceof Inteiro) {
+			return soma(dir, esq);
+		} else if (dir instanceof Inteiro k) {
+			return desloque(esq, k.getValor());
+		}
+		return new ExpSoma(esq, dir);
+	}
+
+	private static Expressao subtracao(Expressao esq, Expressao dir) {
+		if (esq instanceof Inteiro && dir instanceof Inteiro) {
+			return dobre(new ExpSub(esq, dir));
+		} else if (dir instanceof Inteiro k) {
+			return desloque(esq, -k.getValor());
+		} else if (iguais(esq, dir) && descartavel(esq)) {
+			return new Inteiro(0);
+		}
+		return new ExpSub(esq, dir);
+	}
+
+	// (e + a) + b = e + (a + b), também com o estouro de int
+	private static Expressao desloque(Expressao exp, int k) {
+		if (exp instanceof ExpSoma op && op.getDir() instanceof Inteiro a) {
+			return desloque(op.getEsq(), a.getValor() + k);
+		} else if (exp instanceof ExpSub op && op.getDir() instanceof Inteiro a) {
+			return desloque(op.getEsq(), k - a.getValor());
+		} else if (k == 0) {
+			return exp;
+		} else if (k < 0 && k != Integer.MIN_VALUE) {
+			return new ExpSub(exp, new Inteiro(-k));
+		}
+		return new ExpSoma(exp, new Inteiro(k));
+	}
+
+	private static Expressao multiplicacao(Expressao esq, Expressao dir) {
+		if (esq instanceof Inteiro && dir instanceof Inteiro) {
+			return dobre(new ExpMult(esq, dir));
+		} else if (esq instanceof Inteiro) {
+			return multiplicacao(dir, esq);
+		} else if (dir instanceof Inteiro k) {
+			if (k.getValor() == 1) {
+				return esq;
+			} else if (k.getValor() == 0 && descartavel(esq)) {
+				return dir;
+			} else if (esq instanceof ExpMult op && op.getDir() instanceof Inteiro a) {
+				return multiplicacao(op.getEsq(), new Inteiro(a.getValor() * k.getValor()));
+			}
+		}
+		return Fabrica.multiplicacao(esq, dir);
+	}
+
+	private static Expressao divisao(Expressao esq, Expressao dir) {
+		if (esq instanceof Inteiro && dir instanceof Inteiro) {
+			return dobre(new ExpDiv(esq, dir));
+		} else if (dir instanceof Inteiro k && k.getValor() == 1) {
+			return esq;
+		}
+		return Fabrica.divisao(esq, dir);
+	}
+
+	private static Expressao potencia(Expressao esq, Expressao dir) {
+		if (esq instanceof Inteiro && dir instanceof Inteiro) {
+			return dobre(new ExpPow(esq, dir));
+		}
+		return Fabrica.potencia(esq, dir);
+	}
+
+	// Operandos constantes: o próprio nó calcula o valor, exceto se falhar
+	private static Expressao dobre(Expressao exp) {
+		try {
+			return new Inteiro(exp.getValor());
+		} catch (ArithmeticException e) {
+			return exp;
+		}
+	}
+
+	/*
+	 * Condições
+	 */
+	static Bool condicao(Bool b) {
+		if (b instanceof NaoLogico n) {
+			return nao(condicao(n.getOperando()));
+		} else if (b instanceof ELogico e) {
+			final Bool esq = condicao(e.getEsq());
+			final Bool dir = condicao(e.getDir());
+			if (esq instanceof Booleano v) {
+				return v.getValor() ? dir : esq;
+			} else if (dir instanceof Booleano v && (v.getValor() || descartavel(esq))) {
+				return v.getValor() ? esq : dir;
+			}
+			return new ELogico(esq, dir);
+		} else if (b instanceof OuLogico o) {
+			final Bool esq = condicao(o.getEsq());
+			final Bool dir = condicao(o.getDir());
+			if (esq instanceof Booleano v) {
+				return v.getValor() ? esq : dir;
+			} else if (dir instanceof Booleano v && (!v.getValor() || descartavel(esq))) {
+				return v.getValor() ? dir : esq;
+			}
+			return new OuLogico(esq, dir);
+		} else if (b instanceof XorLogico x) {
+			final Bool esq = condicao(x.getEsq());
+			final Bool dir = condicao(x.getDir());
+			if (esq instanceof Booleano v) {
+				return v.getValor() ? nao(dir) : dir;
+			} else if (dir instanceof Booleano v) {
+				return v.getValor() ? nao(esq) : esq;
+			}
+			return new XorLogico(esq, dir);
+		} else if (b instanceof OpBin<?> op) {
+			@SuppressWarnings("unchecked")
+			final OpBin<Expressao> rel = (OpBin<Expressao>) op;
+			return relacao(b, expressao(rel.getEsq()), expressao(rel.getDir()));
+		}
+		return b;
+	}
+
+	private static Bool nao(Bool b) {
+		if (b instanceof Booleano v) {
+			return new Booleano(!v.getValor());
+		} else if (b instanceof NaoLogico n) {
+			return n.getOperando();
+		}
+		return new NaoLogico(b);
+	}
+
+	private static Bool relacao(Bool original, Expressao esq, Expressao dir) {
+		final Bool rel = Fabrica.relacao(Fabrica.operador(original), esq, dir);
+		if (esq instanceof Inteiro && dir instanceof Inteiro) {
+			return new Booleano(rel.getValor());
+		} else if (iguais(esq, dir) && descartavel(esq)) {
+			// x = x, x <= x e x >= x são sempre verdadeiros
+			return new Booleano(rel instanceof ExpIgual || rel instanceof ExpMenorIgual
+					|| rel instanceof ExpMaiorIgual);
+		}
+		return rel;
+	}
+
+	/*
+	 * Auxiliares
+	 */
+	private static boolean zero(Expressao exp) {
+		return exp instanceof Inteiro i && i.getValor() == 0;
+	}
+
+	// Expressões sem leia podem ser descartadas ou duplicadas
+	static boolean puro(Expressao exp) {
+		if (exp instanceof Leia) {
+			return false;
+		} else if (exp instanceof OpBin<?> op) {
+			return puro((Expressao) op.getEsq()) && puro((Expressao) op.getDir());
+		}
+		return true;
+	}
+
+	// Sem leia e sem divisões que possam falhar: sumir com ela não muda o programa
+	private static boolean descartavel(Expressao exp) {
+		return puro(exp) && Analise.seguro(exp);
+	}
+
+	private static boolean descartavel(Bool b) {
+		return puro(b) && Analise.seguro(b);
+	}
+
+	static boolean puro(Bool b) {
+		if (b instanceof NaoLogico n) {
+			return puro(n.getOperando());
+		} else if (b instanceof OpBin<?> op) {
+			return op.getEsq() instanceof Bool esq
+					? puro(esq) && puro((Bool) op.getDir())
+					: puro((Expressao) op.getEsq()) && puro((Expressao) op.getDir());
+		}
+		return true;
+	}
+
+	static boolean iguais(Expressao a, Expressao b) {
+		if (a instanceof Id x && b instanceof Id y) {
+			return x.getSlot() == y.getSlot();
+		} else if (a instanceof Inteiro x && b instanceof Inteiro y) {
+			return x.getValor() == y.getValor();
+		} else if (a instanceof OpBin<?> x && b instanceof OpBin<?> y && a.getClass() == b.getClass()) {
+			return iguais((Expressao) x.getEsq(), (Expressao) y.getEsq())
+					&& iguais((Expressao) x.getDir(), (Expressao) y.getDir());
+		}
+		return false;
+	}
+}
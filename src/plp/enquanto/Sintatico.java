@@ -0,0 +1,400 @@
+package plp.enquanto;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import plp.enquanto.Linguagem.*;
+
+import static plp.enquanto.Lexico.*;
+
+/*
+ * Analisador descendente recursivo (Pratt nas expressões e condições) que
+ * constrói a árvore de Linguagem direto dos tokens, sem árvore sintática.
+ * Reproduz o que o ANTLR e Regras fazem com programas válidos, inclusive a
+ * ordem em que as variáveis recebem slots e o fim da análise no primeiro
+ * token que não começa um comando (programa não exige EOF). Não recupera
+ * erros: lança Erro, e quem chamou usa o ANTLR, que é a referência e
+ * mostra as mensagens.
+ */
+final class Sintatico {
+	// Sem pilha: é só o aviso para usar o ANTLR
+	static final class Erro extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		Erro() {
+			super(null, null, false, false);
+		}
+	}
+
+	private final Lexico lexico;
+	private final int[] tipos;
+	private final int[] valores;
+	private final int ultimo;
+	// Slot de cada símbolo, ou -1
+	private final int[] slots;
+	private int variaveis;
+	private final Leia leia = new Leia();
+	private final Skip skip = new Skip();
+	private int posicao;
+
+	private Sintatico(Lexico lexico) {
+		this.lexico = lexico;
+		tipos = lexico.tipos;
+		valores = lexico.valores;
+		ultimo = lexico.quantidade - 1;
+		slots = new int[lexico.simbolos()];
+		Arrays.fill(slots, -1);
+	}
+
+	static Programa analise(ByteBuffer fonte) {
+		final Sintatico sintatico = new Sintatico(Lexico.tokens(fonte));
+		final List<Comando> comandos = sintatico.comandos();
+		if (comandos.isEmpty()) {
+			throw new Erro();
+		}
+		return new Programa(comandos, sintatico.variaveis);
+	}
+
+	// Como em Regras: o slot é dado na primeira vez em que o ANTLR sairia do nó
+	private int slot(int simbolo) {
+		if (slots[simbolo] < 0) {
+			slots[simbolo] = variaveis++;
+		}
+		return slots[simbolo];
+	}
+
+	/*
+	 * Tokens
+	 */
+	private int tipo() {
+		return tipos[posicao];
+	}
+
+	private int tipo(int adiante) {
+		return tipos[Math.min(posicao + adiante, ultimo)];
+	}
+
+	// Devolve o valor do token: símbolo, número ou fim do texto
+	private int consuma(int tipo) {
+		if (tipos[posicao] != tipo) {
+			throw new Erro();
+		}
+		return valores[posicao++];
+	}
+
+	private boolean aceite(int tipo) {
+		if (tipo() == tipo) {
+			posicao++;
+			return true;
+		}
+		return false;
+	}
+
+	/*
+	 * Comandos
+	 */
+	private List<Comando> comandos() {
+		final List<Comando> comandos = new ArrayList<>();
+		while (iniciaComando(tipo())) {
+			comandos.add(comando());
+		}
+		return comandos;
+	}
+
+	private static boolean iniciaComando(int tipo) {
+		return switch (tipo) {
+			case ID, SKIP, SE, ENQUANTO, REPITA, PARA, ESCOLHA, EXIBA, ESCREVA, ABRE_CHAVE -> true;
+			default -> false;
+		};
+	}
+
+	private Comando comando() {
+		switch (tipo()) {
+			case ID:
+				return atribuicao();
+			case SKIP:
+				posicao++;
+				consuma(PONTO_VIRGULA);
+				return skip;
+			case SE:
+				return se();
+			case ENQUANTO: {
+				posicao++;
+				final Bool condicao = condicao(0);
+				consuma(FACA);
+				return new Enquanto(condicao, comando());
+			}
+			case REPITA: {
+				posicao++;
+				final Expressao vezes = expressao(0);
+				consuma(VEZES);
+				return new Repita(vezes, comando());
+			}
+			case PARA: {
+				posicao++;
+				final int id = consuma(ID);
+				consuma(DE);
+				final Expressao inicio = expressao(0);
+				consuma(ATE);
+				final Expressao fim = expressao(0);
+				consuma(FACA);
+				final Comando corpo = comando();
+				return new Para(slot(id), inicio, fim, corpo);
+			}
+			case ESCOLHA:
+				return escolha();
+			case EXIBA: {
+				posicao++;
+				if (tipo() == TEXTO) {
+					final String texto = lexico.texto(posicao);
+					posicao++;
+					consuma(PONTO_VIRGULA);
+					return new Exiba(texto);
+				}
+				final Expressao exp = expressao(0);
+				consuma(PONTO_VIRGULA);
+				return new ExibaExp(exp);
+			}
+			case ESCREVA: {
+				posicao++;
+				final Expressao exp = expressao(0);
+				consuma(PONTO_VIRGULA);
+				return new Escreva(exp);
+			}
+			case ABRE_CHAVE: {
+				posicao++;
+				final List<Comando> comandos = comandos();
+				if (comandos.isEmpty()) {
+					throw new Erro();
+				}
+				consuma(FECHA_CHAVE);
+				return new Bloco(comandos);
+			}
+			default:
+				throw new Erro();
+		}
+	}
+
+	// Os alvos recebem slots depois das variáveis das expressões
+	private Comando atribuicao() {
+		// Os alvos ficam nos tokens primeiro, primeiro + 2, ...
+		final int primeiro = posicao;
+		int alvos = 1;
+		consuma(ID);
+		while (aceite(VIRGULA)) {
+			consuma(ID);
+			alvos++;
+		}
+		consuma(ATRIBUI);
+		final List<Expressao> exps = new ArrayList<>();
+		exps.add(expressao(0));
+		while (aceite(VIRGULA)) {
+			exps.add(expressao(0));
+		}
+		consuma(PONTO_VIRGULA);
+		final int[] slots = new int[alvos];
+		for (int i = 0; i < alvos; i++) {
+			slots[i] = slot(valores[primeiro + 2 * i]);
+		}
+		return Fabrica.atribuicao(slots, exps);
+	}
+
+	// senaose e senao ficam com o se mais interno, como no ANTLR
+	private Comando se() {
+		posicao++;
+		final List<Bool> condicoes = new ArrayList<>();
+		final List<Comando> ramos = new ArrayList<>();
+		condicoes.add(condicao(0));
+		consuma(ENTAO);
+		ramos.add(comando());
+		while (aceite(SENAOSE)) {
+			condicoes.add(condicao(0));
+			consuma(ENTAO);
+			ramos.add(comando());
+		}
+		final Comando senao = aceite(SENAO) ? comando() : null;
+		return new Se(condicoes, ramos, senao);
+	}
+
+	// Chaves repetidas: vale o último caso
+	private Comando escolha() {
+		posicao++;
+		final Expressao seletor = expressao(0);
+		final List<Integer> chaves = new ArrayList<>();
+		final List<Comando> comandos = new ArrayList<>();
+		do {
+			consuma(CASO);
+			chaves.add(consuma(INT));
+			consuma(DOIS_PONTOS);
+			comandos.add(comando());
+		} while (tipo() == CASO);
+		Comando outro = null;
+		if (aceite(OUTRO)) {
+			consuma(DOIS_PONTOS);
+			outro = comando();
+		}
+		final Map<Integer, Comando> casos = new HashMap<>();
+		for (int i = 0; i < chaves.size(); i++) {
+			casos.put(chaves.get(i), comandos.get(i));
+		}
+		return Fabrica.escolha(seletor, casos, outro);
+	}
+
+	/*
+	 * Expressoes: ^ (4), * e / (3), + e - (2), todos associativos à esquerda
+	 */
+	private static int precedencia(int tipo) {
+		return switch (tipo) {
+			case POTENCIA -> 4;
+			case MULT, DIV -> 3;
+			case SOMA, SUB -> 2;
+			default -> -1;
+		};
+	}
+
+	/*
+	 * Cada volta do laço de fora lê uma cadeia de operadores da mesma
+	 * precedência (a + b - c ...) sem recursão; Fabrica equilibra as longas.
+	 * Como em Regras, as cadeias de * vão de uma / até a próxima.
+	 */
+	private Expressao expressao(int minima) {
+		Expressao esq = primaria();
+		for (int p = precedencia(tipo()); p >= minima;) {
+			final List<Expressao> termos = new ArrayList<>();
+			final BitSet subtrai = new BitSet();
+			termos.add(esq);
+			int seguinte;
+			do {
+				final int op = tipo();
+				posicao++;
+				final Expressao dir = expressao(p + 1);
+				if (op == SUB) {
+					subtrai.set(termos.size());
+				}
+				if (op == SOMA || op == SUB || op == MULT) {
+					termos.add(dir);
+				} else {
+					final Expressao base = Fabrica.encadeie(termos, Fabrica::multiplicacao);
+					termos.clear();
+					termos.add(op == DIV ? Fabrica.divisao(base, dir) : Fabrica.potencia(base, dir));
+				}
+			} while ((seguinte = precedencia(tipo())) == p);
+			esq = p == 2 ? Fabrica.somas(termos, subtrai) : Fabrica.encadeie(termos, Fabrica::multiplicacao);
+			p = seguinte;
+		}
+		return esq;
+	}
+
+	private Expressao primaria() {
+		switch (tipo()) {
+			case INT:
+				return new Inteiro(consuma(INT));
+			case LEIA:
+				posicao++;
+				return leia;
+			case ID:
+				return new Id(slot(consuma(ID)));
+			case ABRE_PAR: {
+				posicao++;
+				final Expressao exp = expressao(0);
+				consuma(FECHA_PAR);
+				return exp;
+			}
+			default:
+				throw new Erro();
+		}
+	}
+
+	/*
+	 * Condições: nao (5), e (4), ou (3), xor (2)
+	 */
+	private static int precedenciaLogica(int tipo) {
+		return switch (tipo) {
+			case E -> 4;
+			case OU -> 3;
+			case XOR -> 2;
+			default -> -1;
+		};
+	}
+
+	// Cadeias de e, ou e xor como em expressao
+	private Bool condicao(int minima) {
+		Bool esq = condicaoPrimaria();
+		for (int p = precedenciaLogica(tipo()); p >= minima;) {
+			final int op = tipo();
+			final List<Bool> termos = new ArrayList<>();
+			termos.add(esq);
+			do {
+				posicao++;
+				termos.add(condicao(p + 1));
+			} while (tipo() == op);
+			esq = switch (op) {
+				case E -> Fabrica.encadeie(termos, ELogico::new);
+				case OU -> Fabrica.encadeie(termos, OuLogico::new);
+				default -> Fabrica.encadeie(termos, XorLogico::new);
+			};
+			p = precedenciaLogica(tipo());
+		}
+		return esq;
+	}
+
+	private Bool condicaoPrimaria() {
+		switch (tipo()) {
+			case BOOLEANO:
+				return new Booleano(consuma(BOOLEANO) == 1);
+			case NAO:
+				posicao++;
+				return new NaoLogico(condicao(5));
+			case ABRE_PAR:
+				if (!parentesesDeExpressao()) {
+					posicao++;
+					final Bool b = condicao(0);
+					consuma(FECHA_PAR);
+					return b;
+				}
+				return relacao();
+			default:
+				return relacao();
+		}
+	}
+
+	private Bool relacao() {
+		final Expressao esq = expressao(0);
+		final String op = switch (tipo()) {
+			case IGUAL -> "=";
+			case DIFERENTE -> "<>";
+			case MENOR -> "<";
+			case MENOR_IGUAL -> "<=";
+			case MAIOR -> ">";
+			case MAIOR_IGUAL -> ">=";
+			default -> throw new Erro();
+		};
+		posicao++;
+		return Fabrica.relacao(op, esq, expressao(0));
+	}
+
+	/*
+	 * "(" em uma condição abre uma expressão quando o que vem depois do ")"
+	 * correspondente é um operador aritmético ou relacional, e uma condição
+	 * entre parênteses nos demais casos
+	 */
+	private boolean parentesesDeExpressao() {
+		int profundidade = 0;
+		for (int i = 0;; i++) {
+			final int tipo = tipo(i);
+			if (tipo == ABRE_PAR) {
+				profundidade++;
+			} else if (tipo == FECHA_PAR && --profundidade == 0) {
+				final int seguinte = tipo(i + 1);
+				return precedencia(seguinte) > 0 || (seguinte >= IGUAL && seguinte <= MAIOR_IGUAL);
+			} else if (tipo == FIM) {
+				return false;
+			}
+		}
+	}
+}
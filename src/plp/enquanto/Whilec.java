@@ -0,0 +1,104 @@
+package plp.enquanto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+
+import plp.enquanto.Linguagem.Programa;
+import plp.enquanto.jvm.Compilador;
+
+/*
+ * Compilador antecipado: grava o programa como uma classe com main dentro
+ * de um jar executável (ou só o .class). A classe gerada depende apenas da
+ * biblioteca padrão; os analisadores e os interpretadores ficam só aqui.
+ *
+ *     whilec [--sem-otimizacoes] [-o saida.jar|saida.class] programa.while
+ */
+public class Whilec {
+	public static void main(final String... args) throws IOException {
+		Principal.naPilhaGrande(() -> compile(args));
+	}
+
+	private static void compile(final String... args) throws IOException {
+		String arq = null;
+		String saida = null;
+		boolean otimize = true;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-o") && i + 1 < args.length) {
+				saida = args[++i];
+			} else if (args[i].equals("--sem-otimizacoes")) {
+				otimize = false;
+			} else {
+				arq = args[i];
+			}
+		}
+		if (arq == null) {
+			System.err.println("Uso: whilec [--sem-otimizacoes] [-o saida.jar|saida.class] programa.while");
+			System.exit(2);
+		}
+		final Path fonte = Path.of(arq);
+		if (saida == null) {
+			saida = fonte.resolveSibling(fonte.getFileName().toString().replaceFirst("\\.while$", "") + ".jar")
+					.toString();
+		}
+		// Um .class precisa ter o nome da classe
+		final String nome = nome(Path.of(saida).getFileName().toString().replaceFirst("\\.(jar|class)$", ""));
+
+		final ByteBuffer bytes;
+		try {
+			bytes = Fonte.mapeie(fonte);
+		} catch (IOException e) {
+			System.err.println("Arquivo não encontrado: " + arq);
+			System.exit(1);
+			return;
+		}
+		Programa programa = Principal.construa(bytes, new BaseErrorListener());
+		if (otimize) {
+			programa = Principal.otimize(programa, false);
+		}
+
+		final byte[] classe;
+		try {
+			classe = Compilador.executavel(nome, programa);
+		} catch (IllegalArgumentException e) {
+			System.err.println(arq + ": " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+		if (saida.endsWith(".class")) {
+			Files.write(Path.of(saida), classe);
+		} else {
+			jar(Path.of(saida), nome, classe);
+		}
+	}
+
+	private static void jar(Path saida, String nome, byte[] classe) throws IOException {
+		final Manifest manifesto = new Manifest();
+		manifesto.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		manifesto.getMainAttributes().put(Attributes.Name.MAIN_CLASS, nome);
+		try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(saida), manifesto)) {
+			jar.putNextEntry(new JarEntry(nome + ".class"));
+			jar.write(classe);
+			jar.closeEntry();
+		}
+	}
+
+	// Nome de classe Java a partir do nome do arquivo, no pacote padrão
+	private static String nome(String arquivo) {
+		final StringBuilder nome = new StringBuilder();
+		for (char c : arquivo.toCharArray()) {
+			nome.append(Character.isJavaIdentifierPart(c) ? c : '_');
+		}
+		if (nome.isEmpty() || !Character.isJavaIdentifierStart(nome.charAt(0))) {
+			nome.insert(0, '_');
+		}
+		return nome.toString();
+	}
+}
@@ -0,0 +1,563 @@
+package plp.enquanto.exato;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import plp.enquanto.Linguagem.*;
+
+import static plp.enquanto.Linguagem.scanner;
+
+/*
+ * Modo de aritmética exata: os valores não estouram. Cada expressão é
+ * calculada em long com Math.addExact, subtractExact e multiplyExact; só
+ * quando uma delas estoura o cálculo passa para BigInteger. O resultado
+ * volta para long assim que cabe, então programas cujos valores cabem em
+ * int ou long nunca criam um BigInteger.
+ *
+ * Um nó devolve GRANDE (Long.MIN_VALUE) quando o valor não cabe em long
+ * (ou é o próprio Long.MIN_VALUE) e deixa o BigInteger no campo grande.
+ * A memória é um long[] com um BigInteger[] ao lado para os slots que
+ * guardam valores grandes.
+ */
+public final class Exato {
+	static final long GRANDE = Long.MIN_VALUE;
+
+	// Mantida entre programas, como Linguagem.memoria, para o modo interativo
+	private static final Memoria memoria = new Memoria();
+
+	private Exato() {
+	}
+
+	public static Comando compile(Programa programa) {
+		memoria.aloque(programa.getVariaveis());
+		final Cmd corpo = new Seq(programa.getComandos().stream().map(Exato::comando).toArray(Cmd[]::new));
+		return corpo::execute;
+	}
+
+	/*
+	 * Tradução da árvore
+	 */
+	private static Cmd comando(Comando comando) {
+		if (comando instanceof Atribuicao a) {
+			return new Atrib(a.getSlots(), a.getExps().stream().map(Exato::expressao).toArray(Exp[]::new));
+		} else if (comando instanceof Bloco b) {
+			return new Seq(b.getComandos().stream().map(Exato::comando).toArray(Cmd[]::new));
+		} else if (comando instanceof Se se) {
+			final Cond[] condicoes = se.getCondicoes().stream().map(Exato::condicao).toArray(Cond[]::new);
+			final Cmd[] ramos = se.getRamos().stream().map(Exato::comando).toArray(Cmd[]::new);
+			return new SeEntao(condicoes, ramos, se.getSenao() == null ? null : comando(se.getSenao()));
+		} else if (comando instanceof Enquanto e) {
+			return new Laco(condicao(e.getCondicao()), comando(e.getComando()));
+		} else if (comando instanceof Repita r) {
+			return new Vezes(expressao(r.getVezes()), comando(r.getCorpo()));
+		} else if (comando instanceof Para p) {
+			return new De(p.getSlot(), expressao(p.getInicio()), expressao(p.getFim()), comando(p.getCorpo()));
+		} else if (comando instanceof Escolha e) {
+			final Cmd[] casos = Arrays.stream(e.getCasos()).map(Exato::comando).toArray(Cmd[]::new);
+			return new Caso(expressao(e.getSeletor()), e.getChaves(), casos,
+					e.getOutro() == null ? null : comando(e.getOutro()));
+		} else if (comando instanceof Exiba e) {
+			final String texto = e.getTexto();
+			return () -> System.out.println(texto);
+		} else if (comando instanceof ExibaExp e) {
+			return new Escrita(expressao(e.getExp()));
+		} else if (comando instanceof Escreva e) {
+			return new Escrita(expressao(e.getExp()));
+		} else if (comando instanceof Skip) {
+			return () -> {
+			};
+		}
+		throw new IllegalArgumentException("Comando não suportado: " + comando.getClass().getSimpleName());
+	}
+
+	private static Exp expressao(Expressao exp) {
+		if (exp instanceof Inteiro i) {
+			return new Const(i.getValor());
+		} else if (exp instanceof Id id) {
+			return new Var(id.getSlot());
+		} else if (exp instanceof Leia) {
+			return new Leitura();
+		} else if (exp instanceof OpBin<?> op) {
+			@SuppressWarnings("unchecked")
+			final OpBin<Expressao> bin = (OpBin<Expressao>) op;
+			final Exp esq = expressao(bin.getEsq());
+			final Exp dir = expressao(bin.getDir());
+			if (exp instanceof ExpSoma) {
+				return new Soma(esq, dir);
+			} else if (exp instanceof ExpSub) {
+				return new Sub(esq, dir);
+			} else if (exp instanceof ExpMult) {
+				return new Mult(esq, dir);
+			} else if (exp instanceof ExpDiv) {
+				return new Div(esq, dir);
+			} else if (exp instanceof ExpPow) {
+				return new Pot(esq, dir);
+			}
+		}
+		throw new IllegalArgumentException("Expressão não suportada: " + exp.getClass().getSimpleName());
+	}
+
+	private static Cond condicao(Bool b) {
+		if (b instanceof Booleano v) {
+			final boolean valor = v.getValor();
+			return () -> valor;
+		} else if (b instanceof NaoLogico n) {
+			final Cond c = condicao(n.getOperando());
+			return () -> !c.teste();
+		} else if (b instanceof ELogico e) {
+			final Cond esq = condicao(e.getEsq());
+			final Cond dir = condicao(e.getDir());
+			return () -> esq.teste() && dir.teste();
+		} else if (b instanceof OuLogico o) {
+			final Cond esq = condicao(o.getEsq());
+			final Cond dir = condicao(o.getDir());
+			return () -> esq.teste() || dir.teste();
+		} else if (b instanceof XorLogico x) {
+			final Cond esq = condicao(x.getEsq());
+			final Cond dir = condicao(x.getDir());
+			return () -> esq.teste() ^ dir.teste();
+		} else if (b instanceof OpBin<?> op) {
+			@SuppressWarnings("unchecked")
+			final OpBin<Expressao> rel = (OpBin<Expressao>) op;
+			final Exp esq = expressao(rel.getEsq());
+			final Exp dir = expressao(rel.getDir());
+			final Relacao relacao = relacao(b);
+			return () -> relacao.teste(compare(esq, dir));
+		}
+		throw new IllegalArgumentException("Condição não suportada: " + b.getClass().getSimpleName());
+	}
+
+	private interface Relacao {
+		boolean teste(int comparacao);
+	}
+
+	private static Relacao relacao(Bool b) {
+		if (b instanceof ExpIgual) {
+			return c -> c == 0;
+		} else if (b instanceof ExpDiferente) {
+			return c -> c != 0;
+		} else if (b instanceof ExpMenor) {
+			return c -> c < 0;
+		} else if (b instanceof ExpMenorIgual) {
+			return c -> c <= 0;
+		} else if (b instanceof ExpMaior) {
+			return c -> c > 0;
+		} else if (b instanceof ExpMaiorIgual) {
+			return c -> c >= 0;
+		}
+		throw new IllegalArgumentException("Condição não suportada: " + b.getClass().getSimpleName());
+	}
+
+	private static int compare(Exp esq, Exp dir) {
+		final long a = esq.avalie();
+		final long b = dir.avalie();
+		if (a != GRANDE && b != GRANDE) {
+			return Long.compare(a, b);
+		}
+		return esq.grande(a).compareTo(dir.grande(b));
+	}
+
+	/*
+	 * Memória
+	 */
+	private static final class Memoria {
+		private long[] valores = new long[0];
+		private BigInteger[] grandes = new BigInteger[0];
+
+		void aloque(int n) {
+			if (n > valores.length) {
+				valores = Arrays.copyOf(valores, n);
+				grandes = Arrays.copyOf(grandes, n);
+			}
+		}
+
+		void defina(int slot, long valor) {
+			valores[slot] = valor;
+			grandes[slot] = null;
+		}
+
+		void defina(int slot, BigInteger valor) {
+			if (cabe(valor)) {
+				defina(slot, valor.longValue());
+			} else {
+				valores[slot] = GRANDE;
+				grandes[slot] = valor;
+			}
+		}
+	}
+
+	private static boolean cabe(BigInteger x) {
+		return x.bitLength() < 64 && x.longValue() != GRANDE;
+	}
+
+	/*
+	 * Expressões
+	 */
+	private abstract static class Exp {
+		// Valor da última avaliação que devolveu GRANDE
+		BigInteger grande;
+
+		abstract long avalie();
+
+		// O valor v devolvido por avalie() como BigInteger
+		final BigInteger grande(long v) {
+			return v == GRANDE ? grande : BigInteger.valueOf(v);
+		}
+
+		final long resultado(BigInteger x) {
+			if (cabe(x)) {
+				return x.longValue();
+			}
+			grande = x;
+			return GRANDE;
+		}
+	}
+
+	private static final class Const extends Exp {
+		private final long valor;
+
+		Const(long valor) {
+			this.valor = valor;
+		}
+
+		@Override
+		long avalie() {
+			return valor;
+		}
+	}
+
+	private static final class Var extends Exp {
+		private final int slot;
+
+		Var(int slot) {
+			this.slot = slot;
+		}
+
+		@Override
+		long avalie() {
+			final long v = memoria.valores[slot];
+			if (v == GRANDE) {
+				grande = memoria.grandes[slot];
+			}
+			return v;
+		}
+	}
+
+	private static final class Leitura extends Exp {
+		@Override
+		long avalie() {
+			return resultado(scanner.nextBigInteger());
+		}
+	}
+
+	private static final class Soma extends Exp {
+		private final Exp esq;
+		private final Exp dir;
+
+		Soma(Exp esq, Exp dir) {
+			this.esq = esq;
+			this.dir = dir;
+		}
+
+		@Override
+		long avalie() {
+			final long a = esq.avalie();
+			final long b = dir.avalie();
+			if (a != GRANDE && b != GRANDE) {
+				try {
+					final long r = Math.addExact(a, b);
+					if (r != GRANDE) {
+						return r;
+					}
+				} catch (ArithmeticException e) {
+					// Estourou o long: continua em BigInteger
+				}
+			}
+			return resultado(esq.grande(a).add(dir.grande(b)));
+		}
+	}
+
+	private static final class Sub extends Exp {
+		private final Exp esq;
+		private final Exp dir;
+
+		Sub(Exp esq, Exp dir) {
+			this.esq = esq;
+			this.dir = dir;
+		}
+
+		@Override
+		long avalie() {
+			final long a = esq.avalie();
+			final long b = dir.avalie();
+			if (a != GRANDE && b != GRANDE) {
+				try {
+					final long r = Math.subtractExact(a, b);
+					if (r != GRANDE) {
+						return r;
+					}
+				} catch (ArithmeticException e) {
+					// Estourou o long: continua em BigInteger
+				}
+			}
+			return resultado(esq.grande(a).subtract(dir.grande(b)));
+		}
+	}
+
+	private static final class Mult extends Exp {
+		private final Exp esq;
+		private final Exp dir;
+
+		Mult(Exp esq, Exp dir) {
+			this.esq = esq;
+			this.dir = dir;
+		}
+
+		@Override
+		long avalie() {
+			final long a = esq.avalie();
+			final long b = dir.avalie();
+			if (a != GRANDE && b != GRANDE) {
+				try {
+					final long r = Math.multiplyExact(a, b);
+					if (r != GRANDE) {
+						return r;
+					}
+				} catch (ArithmeticException e) {
+					// Estourou o long: continua em BigInteger
+				}
+			}
+			return resultado(esq.grande(a).multiply(dir.grande(b)));
+		}
+	}
+
+	// Trunca em direção a zero, como / do Java, que também é o de BigInteger
+	private static final class Div extends Exp {
+		private final Exp esq;
+		private final Exp dir;
+
+		Div(Exp esq, Exp dir) {
+			this.esq = esq;
+			this.dir = dir;
+		}
+
+		@Override
+		long avalie() {
+			final long a = esq.avalie();
+			final long b = dir.avalie();
+			if (b == 0) {
+				throw new ArithmeticException("/ by zero");
+			} else if (a != GRANDE && b != GRANDE) {
+				// a nunca é Long.MIN_VALUE aqui, então a / b não estoura
+				return a / b;
+			}
+			return resultado(esq.grande(a).divide(dir.grande(b)));
+		}
+	}
+
+	/*
+	 * Potência: quadrados sucessivos com multiplyExact; expoente negativo
+	 * segue ExpPow.potencia (1 e -1 dão ±1, 0 dá Integer.MAX_VALUE, as demais
+	 * bases dão 0).
+	 */
+	private static final class Pot extends Exp {
+		private final Exp esq;
+		private final Exp dir;
+
+		Pot(Exp esq, Exp dir) {
+			this.esq = esq;
+			this.dir = dir;
+		}
+
+		@Override
+		long avalie() {
+			final long a = esq.avalie();
+			final long b = dir.avalie();
+			if (a != GRANDE && b != GRANDE) {
+				if (b < 0 || a >= -1 && a <= 1) {
+					return pequena(a, (b & 1) == 0, Long.signum(b));
+				}
+				try {
+					long base = a;
+					long resultado = 1;
+					for (long n = b; n > 0; n >>= 1) {
+						if ((n & 1) != 0) {
+							resultado = Math.multiplyExact(resultado, base);
+						}
+						if (n > 1) {
+							base = Math.multiplyExact(base, base);
+						}
+					}
+					if (resultado != GRANDE) {
+						return resultado;
+					}
+				} catch (ArithmeticException e) {
+					// Estourou o long: continua em BigInteger
+				}
+			}
+			final BigInteger base = esq.grande(a);
+			final BigInteger expoente = dir.grande(b);
+			if (expoente.signum() < 0 || base.abs().compareTo(BigInteger.ONE) <= 0) {
+				return pequena(a, !expoente.testBit(0), expoente.signum());
+			}
+			// Expoentes que não cabem em int dariam números impossíveis de guardar
+			return resultado(base.pow(expoente.intValueExact()));
+		}
+
+		// Base -1, 0 ou 1, ou expoente negativo (sinal é o do expoente)
+		private static long pequena(long base, boolean par, int sinal) {
+			if (base == 1) {
+				return 1;
+			} else if (base == -1) {
+				return par ? 1 : -1;
+			} else if (base == 0 && sinal < 0) {
+				return Integer.MAX_VALUE;
+			} else if (base == 0) {
+				return sinal == 0 ? 1 : 0;
+			}
+			return 0;
+		}
+	}
+
+	/*
+	 * Comandos
+	 */
+	private interface Cmd {
+		void execute();
+	}
+
+	private interface Cond {
+		boolean teste();
+	}
+
+	private record Seq(Cmd[] comandos) implements Cmd {
+		@Override
+		public void execute() {
+			for (Cmd c : comandos) {
+				c.execute();
+			}
+		}
+	}
+
+	// Todas as expressões são avaliadas antes de qualquer atribuição
+	private record Atrib(int[] slots, Exp[] exps) implements Cmd {
+		@Override
+		public void execute() {
+			final long[] valores = new long[exps.length];
+			final BigInteger[] grandes = new BigInteger[exps.length];
+			for (int i = 0; i < exps.length; i++) {
+				valores[i] = exps[i].avalie();
+				if (valores[i] == GRANDE) {
+					grandes[i] = exps[i].grande;
+				}
+			}
+			for (int i = 0; i < slots.length; i++) {
+				if (i >= valores.length) {
+					// Atribuição incompleta (recuperada pelo parser)
+					throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + valores.length);
+				} else if (valores[i] == GRANDE) {
+					memoria.defina(slots[i], grandes[i]);
+				} else {
+					memoria.defina(slots[i], valores[i]);
+				}
+			}
+		}
+	}
+
+	private record SeEntao(Cond[] condicoes, Cmd[] ramos, Cmd senao) implements Cmd {
+		@Override
+		public void execute() {
+			for (int i = 0; i < condicoes.length; i++) {
+				if (condicoes[i].teste()) {
+					ramos[i].execute();
+					return;
+				}
+			}
+			if (senao != null) {
+				senao.execute();
+			}
+		}
+	}
+
+	private record Laco(Cond condicao, Cmd corpo) implements Cmd {
+		@Override
+		public void execute() {
+			while (condicao.teste()) {
+				corpo.execute();
+			}
+		}
+	}
+
+	// vezes é avaliado uma única vez
+	private record Vezes(Exp vezes, Cmd corpo) implements Cmd {
+		@Override
+		public void execute() {
+			final long n = vezes.avalie();
+			if (n == GRANDE) {
+				for (BigInteger i = vezes.grande; i.signum() > 0; i = i.subtract(BigInteger.ONE)) {
+					corpo.execute();
+				}
+			} else {
+				for (long i = 0; i < n; i++) {
+					corpo.execute();
+				}
+			}
+		}
+	}
+
+	/*
+	 * O contador é separado da variável e fim é reavaliado a cada volta.
+	 * Fica em long enquanto cabe e passa para BigInteger depois.
+	 */
+	private record De(int slot, Exp inicio, Exp fim, Cmd corpo) implements Cmd {
+		@Override
+		public void execute() {
+			long i = inicio.avalie();
+			BigInteger grande = i == GRANDE ? inicio.grande : null;
+			while (grande == null) {
+				final long f = fim.avalie();
+				if (f == GRANDE ? fim.grande.signum() < 0 : i > f) {
+					return;
+				}
+				memoria.defina(slot, i);
+				corpo.execute();
+				if (i == Long.MAX_VALUE) {
+					grande = BigInteger.valueOf(i).add(BigInteger.ONE);
+				} else {
+					i++;
+				}
+			}
+			while (grande.compareTo(fim.grande(fim.avalie())) <= 0) {
+				memoria.defina(slot, grande);
+				corpo.execute();
+				grande = grande.add(BigInteger.ONE);
+			}
+		}
+	}
+
+	// Seletores fora do intervalo de int nunca são uma das chaves
+	private record Caso(Exp seletor, int[] chaves, Cmd[] casos, Cmd outro) implements Cmd {
+		@Override
+		public void execute() {
+			final long v = seletor.avalie();
+			final int i = v == (int) v ? Arrays.binarySearch(chaves, (int) v) : -1;
+			if (i >= 0) {
+				casos[i].execute();
+			} else if (outro != null) {
+				outro.execute();
+			}
+		}
+	}
+
+	private record Escrita(Exp exp) implements Cmd {
+		@Override
+		public void execute() {
+			final long v = exp.avalie();
+			if (v == GRANDE) {
+				System.out.println(exp.grande);
+			} else {
+				System.out.println(v);
+			}
+		}
+	}
+}
@@ -0,0 +1,406 @@
+package plp.enquanto.fechamento;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+import plp.enquanto.Linguagem.*;
+
+import static plp.enquanto.Linguagem.memoria;
+import static plp.enquanto.Linguagem.scanner;
+
+/*
+ * Converte a árvore em funções pré-ligadas: cada expressão vira um
+ * IntSupplier, cada condição um BooleanSupplier e cada comando um Runnable,
+ * todos capturando diretamente a memória (int[]) do programa. Operandos que
+ * são variáveis ou constantes são lidos no próprio fechamento, sem chamar
+ * outro nó. Não gera classes, então serve bem para programas curtos.
+ */
+public final class Fechamentos {
+	private final int[] m;
+
+	private Fechamentos(int[] m) {
+		this.m = m;
+	}
+
+	public static Comando compile(Programa programa) {
+		memoria.aloque(programa.getVariaveis());
+		final Fechamentos fechamentos = new Fechamentos(memoria.getValores());
+		final Runnable corpo = fechamentos.sequencia(programa.getComandos());
+		return corpo::run;
+	}
+
+	/*
+	 * Comandos
+	 */
+	private Runnable comando(Comando comando) {
+		if (comando instanceof Atribuicao a) {
+			return atribuicao(a.getSlots(), a.getExps());
+		} else if (comando instanceof Bloco b) {
+			return sequencia(b.getComandos());
+		} else if (comando instanceof Se se) {
+			return se(se);
+		} else if (comando instanceof Enquanto e) {
+			final BooleanSupplier condicao = condicao(e.getCondicao());
+			final Runnable corpo = comando(e.getComando());
+			return () -> {
+				while (condicao.getAsBoolean()) {
+					corpo.run();
+				}
+			};
+		} else if (comando instanceof Repita r) {
+			final IntSupplier vezes = expressao(r.getVezes());
+			final Runnable corpo = comando(r.getCorpo());
+			return () -> {
+				for (int i = vezes.getAsInt(); i > 0; i--) {
+					corpo.run();
+				}
+			};
+		} else if (comando instanceof Para p) {
+			return para(p);
+		} else if (comando instanceof Escolha e) {
+			return escolha(e);
+		} else if (comando instanceof Exiba e) {
+			final String texto = e.getTexto();
+			return () -> System.out.println(texto);
+		} else if (comando instanceof ExibaExp e) {
+			return escreva(e.getExp());
+		} else if (comando instanceof Escreva e) {
+			return escreva(e.getExp());
+		} else if (comando instanceof Skip) {
+			return () -> {
+			};
+		}
+		throw new IllegalArgumentException("Comando não suportado: " + comando.getClass().getSimpleName());
+	}
+
+	private Runnable sequencia(List<Comando> comandos) {
+		final Runnable[] cmds = comandos.stream().map(this::comando).toArray(Runnable[]::new);
+		if (cmds.length == 1) {
+			return cmds[0];
+		} else if (cmds.length == 2) {
+			final Runnable primeiro = cmds[0];
+			final Runnable segundo = cmds[1];
+			return () -> {
+				primeiro.run();
+				segundo.run();
+			};
+		}
+		return () -> {
+			for (Runnable cmd : cmds) {
+				cmd.run();
+			}
+		};
+	}
+
+	private Runnable escreva(Expressao exp) {
+		final IntSupplier valor = expressao(exp);
+		return () -> System.out.println(valor.getAsInt());
+	}
+
+	private Runnable atribuicao(int[] slots, List<Expressao> exps) {
+		final int[] m = this.m;
+		if (slots.length == 1 && exps.size() == 1) {
+			final int slot = slots[0];
+			final Expressao exp = exps.get(0);
+			if (exp instanceof Inteiro i) {
+				final int k = i.getValor();
+				return () -> m[slot] = k;
+			} else if (exp instanceof Id id) {
+				final int a = id.getSlot();
+				return () -> m[slot] = m[a];
+			}
+			final IntSupplier valor = expressao(exp);
+			return () -> m[slot] = valor.getAsInt();
+		}
+		// Todas as expressões são avaliadas antes de qualquer atribuição
+		final IntSupplier[] valores = exps.stream().map(this::expressao).toArray(IntSupplier[]::new);
+		final int[] temporarios = new int[valores.length];
+		final int n = Math.min(slots.length, valores.length);
+		return () -> {
+			for (int i = 0; i < valores.length; i++) {
+				temporarios[i] = valores[i].getAsInt();
+			}
+			for (int i = 0; i < n; i++) {
+				m[slots[i]] = temporarios[i];
+			}
+			if (n < slots.length) {
+				// Atribuição incompleta (recuperada pelo parser) falha como em Atribuicao.execute()
+				throw new IndexOutOfBoundsException("Index " + n + " out of bounds for length " + n);
+			}
+		};
+	}
+
+	private Runnable se(Se se) {
+		final BooleanSupplier[] condicoes = se.getCondicoes().stream().map(this::condicao).toArray(BooleanSupplier[]::new);
+		final Runnable[] ramos = se.getRamos().stream().map(this::comando).toArray(Runnable[]::new);
+		final Runnable senao = se.getSenao() == null ? null : comando(se.getSenao());
+		if (condicoes.length == 1) {
+			final BooleanSupplier condicao = condicoes[0];
+			final Runnable entao = ramos[0];
+			if (senao == null) {
+				return () -> {
+					if (condicao.getAsBoolean()) {
+						entao.run();
+					}
+				};
+			}
+			return () -> {
+				if (condicao.getAsBoolean()) {
+					entao.run();
+				} else {
+					senao.run();
+				}
+			};
+		}
+		return () -> {
+			for (int i = 0; i < condicoes.length; i++) {
+				if (condicoes[i].getAsBoolean()) {
+					ramos[i].run();
+					return;
+				}
+			}
+			if (senao != null) {
+				senao.run();
+			}
+		};
+	}
+
+	private Runnable para(Para p) {
+		final int[] m = this.m;
+		final int slot = p.getSlot();
+		final IntSupplier inicio = expressao(p.getInicio());
+		final Runnable corpo = comando(p.getCorpo());
+		if (p.getFim() instanceof Inteiro f) {
+			final int fim = f.getValor();
+			return () -> {
+				for (int i = inicio.getAsInt(); i <= fim; i++) {
+					m[slot] = i;
+					corpo.run();
+				}
+			};
+		}
+		// O limite é reavaliado a cada volta, como em Para.execute()
+		final IntSupplier fim = expressao(p.getFim());
+		return () -> {
+			for (int i = inicio.getAsInt(); i <= fim.getAsInt(); i++) {
+				m[slot] = i;
+				corpo.run();
+			}
+		};
+	}
+
+	private Runnable escolha(Escolha e) {
+		final IntSupplier seletor = expressao(e.getSeletor());
+		final int[] chaves = e.getChaves();
+		final Runnable[] casos = Arrays.stream(e.getCasos()).map(this::comando).toArray(Runnable[]::new);
+		final Runnable outro = e.getOutro() == null ? null : comando(e.getOutro());
+		if (e instanceof EscolhaDensa d) {
+			final int menor = d.getMenor();
+			// Valores sem caso no intervalo caem em outro
+			final Runnable[] tabela = new Runnable[d.getTabela().length];
+			Arrays.fill(tabela, outro);
+			for (int i = 0; i < chaves.length; i++) {
+				tabela[chaves[i] - menor] = casos[i];
+			}
+			return () -> {
+				final int i = seletor.getAsInt() - menor;
+				final Runnable caso = i >= 0 && i < tabela.length ? tabela[i] : outro;
+				if (caso != null) {
+					caso.run();
+				}
+			};
+		}
+		return () -> {
+			final int i = Arrays.binarySearch(chaves, seletor.getAsInt());
+			if (i >= 0) {
+				casos[i].run();
+			} else if (outro != null) {
+				outro.run();
+			}
+		};
+	}
+
+	/*
+	 * Expressoes
+	 */
+	private IntSupplier expressao(Expressao exp) {
+		final int[] m = this.m;
+		if (exp instanceof Inteiro i) {
+			final int k = i.getValor();
+			return () -> k;
+		} else if (exp instanceof Id id) {
+			final int a = id.getSlot();
+			return () -> m[a];
+		} else if (exp instanceof Leia) {
+			return scanner::nextInt;
+		} else if (exp instanceof ExpSoma op) {
+			return soma(op.getEsq(), op.getDir());
+		} else if (exp instanceof ExpSub op) {
+			return subtracao(op.getEsq(), op.getDir());
+		} else if (exp instanceof ExpMult op) {
+			return multiplicacao(op.getEsq(), op.getDir());
+		} else if (exp instanceof ExpDiv op) {
+			final IntSupplier esq = expressao(op.getEsq());
+			final IntSupplier dir = expressao(op.getDir());
+			return () -> esq.getAsInt() / dir.getAsInt();
+		} else if (exp instanceof ExpPow op) {
+			final IntSupplier esq = expressao(op.getEsq());
+			final IntSupplier dir = expressao(op.getDir());
+			return () -> ExpPow.potencia(esq.getAsInt(), dir.getAsInt());
+		}
+		throw new IllegalArgumentException("Expressão não suportada: " + exp.getClass().getSimpleName());
+	}
+
+	private IntSupplier soma(Expressao e, Expressao d) {
+		final int[] m = this.m;
+		if (e instanceof Id a && d instanceof Inteiro k) {
+			final int s = a.getSlot();
+			final int v = k.getValor();
+			return () -> m[s] + v;
+		} else if (e instanceof Id a && d instanceof Id b) {
+			final int s = a.getSlot();
+			final int t = b.getSlot();
+			return () -> m[s] + m[t];
+		} else if (d instanceof Inteiro k) {
+			final IntSupplier esq = expressao(e);
+			final int v = k.getValor();
+			return () -> esq.getAsInt() + v;
+		} else if (d instanceof Id b) {
+			final IntSupplier esq = expressao(e);
+			final int t = b.getSlot();
+			return () -> esq.getAsInt() + m[t];
+		}
+		final IntSupplier esq = expressao(e);
+		final IntSupplier dir = expressao(d);
+		return () -> esq.getAsInt() + dir.getAsInt();
+	}
+
+	private IntSupplier subtracao(Expressao e, Expressao d) {
+		final int[] m = this.m;
+		if (e instanceof Id a && d instanceof Inteiro k) {
+			final int s = a.getSlot();
+			final int v = k.getValor();
+			return () -> m[s] - v;
+		} else if (e instanceof Id a && d instanceof Id b) {
+			final int s = a.getSlot();
+			final int t = b.getSlot();
+			return () -> m[s] - m[t];
+		} else if (d instanceof Inteiro k) {
+			final IntSupplier esq = expressao(e);
+			final int v = k.getValor();
+			return () -> esq.getAsInt() - v;
+		} else if (d instanceof Id b) {
+			final IntSupplier esq = expressao(e);
+			final int t = b.getSlot();
+			return () -> esq.getAsInt() - m[t];
+		}
+		final IntSupplier esq = expressao(e);
+		final IntSupplier dir = expressao(d);
+		return () -> esq.getAsInt() - dir.getAsInt();
+	}
+
+	private IntSupplier multiplicacao(Expressao e, Expressao d) {
+		final int[] m = this.m;
+		if (e instanceof Id a && d instanceof Inteiro k) {
+			final int s = a.getSlot();
+			final int v = k.getValor();
+			return () -> m[s] * v;
+		} else if (e instanceof Id a && d instanceof Id b) {
+			final int s = a.getSlot();
+			final int t = b.getSlot();
+			return () -> m[s] * m[t];
+		} else if (d instanceof Inteiro k) {
+			final IntSupplier esq = expressao(e);
+			final int v = k.getValor();
+			return () -> esq.getAsInt() * v;
+		}
+		final IntSupplier esq = expressao(e);
+		final IntSupplier dir = expressao(d);
+		return () -> esq.getAsInt() * dir.getAsInt();
+	}
+
+	/*
+	 * Condições
+	 */
+	private BooleanSupplier condicao(Bool b) {
+		if (b instanceof Booleano v) {
+			final boolean valor = v.getValor();
+			return () -> valor;
+		} else if (b instanceof NaoLogico n) {
+			final BooleanSupplier operando = condicao(n.getOperando());
+			return () -> !operando.getAsBoolean();
+		} else if (b instanceof ELogico e) {
+			final BooleanSupplier esq = condicao(e.getEsq());
+			final BooleanSupplier dir = condicao(e.getDir());
+			return () -> esq.getAsBoolean() && dir.getAsBoolean();
+		} else if (b instanceof OuLogico o) {
+			final BooleanSupplier esq = condicao(o.getEsq());
+			final BooleanSupplier dir = condicao(o.getDir());
+			return () -> esq.getAsBoolean() || dir.getAsBoolean();
+		} else if (b instanceof XorLogico x) {
+			final BooleanSupplier esq = condicao(x.getEsq());
+			final BooleanSupplier dir = condicao(x.getDir());
+			return () -> esq.getAsBoolean() ^ dir.getAsBoolean();
+		} else if (b instanceof OpBin<?> op) {
+			@SuppressWarnings("unchecked")
+			final OpBin<Expressao> rel = (OpBin<Expressao>) op;
+			return relacao(b, rel.getEsq(), rel.getDir());
+		}
+		throw new IllegalArgumentException("Condição não suportada: " + b.getClass().getSimpleName());
+	}
+
+	private BooleanSupplier relacao(Bool b, Expressao e, Expressao d) {
+		final int[] m = this.m;
+		if (e instanceof Id a && d instanceof Inteiro k) {
+			final int s = a.getSlot();
+			final int v = k.getValor();
+			if (b instanceof ExpIgual) {
+				return () -> m[s] == v;
+			} else if (b instanceof ExpDiferente) {
+				return () -> m[s] != v;
+			} else if (b instanceof ExpMenor) {
+				return () -> m[s] < v;
+			} else if (b instanceof ExpMenorIgual) {
+				return () -> m[s] <= v;
+			} else if (b instanceof ExpMaior) {
+				return () -> m[s] > v;
+			} else if (b instanceof ExpMaiorIgual) {
+				return () -> m[s] >= v;
+			}
+		} else if (e instanceof Id a && d instanceof Id c) {
+			final int s = a.getSlot();
+			final int t = c.getSlot();
+			if (b instanceof ExpIgual) {
+				return () -> m[s] == m[t];
+			} else if (b instanceof ExpDiferente) {
+				return () -> m[s] != m[t];
+			} else if (b instanceof ExpMenor) {
+				return () -> m[s] < m[t];
+			} else if (b instanceof ExpMenorIgual) {
+				return () -> m[s] <= m[t];
+			} else if (b instanceof ExpMaior) {
+				return () -> m[s] > m[t];
+			} else if (b instanceof ExpMaiorIgual) {
+				return () -> m[s] >= m[t];
+			}
+		}
+		final IntSupplier esq = expressao(e);
+		final IntSupplier dir = expressao(d);
+		if (b instanceof ExpIgual) {
+			return () -> esq.getAsInt() == dir.getAsInt();
+		} else if (b instanceof ExpDiferente) {
+			return () -> esq.getAsInt() != dir.getAsInt();
+		} else if (b instanceof ExpMenor) {
+			return () -> esq.getAsInt() < dir.getAsInt();
+		} else if (b instanceof ExpMenorIgual) {
+			return () -> esq.getAsInt() <= dir.getAsInt();
+		} else if (b instanceof ExpMaior) {
+			return () -> esq.getAsInt() > dir.getAsInt();
+		} else if (b instanceof ExpMaiorIgual) {
+			return () -> esq.getAsInt() >= dir.getAsInt();
+		}
+		throw new IllegalArgumentException("Condição não suportada: " + b.getClass().getSimpleName());
+	}
+}
@@ -0,0 +1,317 @@
+package plp.enquanto.ir;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import plp.enquanto.vm.Codigo;
+
+import static plp.enquanto.vm.Instrucao.*;
+
+/*
+ * Traduz a forma SSA para a máquina de registradores. Cada valor tem o
+ * seu registrador (as cargas usam o próprio slot, que só é gravado no
+ * FIM); phis viram cópias paralelas no fim dos predecessores, ou em um
+ * trecho próprio quando a aresta sai de um bloco com vários sucessores.
+ * Uma relação usada só pelo desvio do seu bloco vira o próprio SE*.
+ */
+public final class Baixa {
+	private final Funcao funcao;
+	private final int zero;
+	private final int auxiliar;
+	private final Map<Valor, Integer> usos = new HashMap<>();
+	private final Map<Valor, Boolean> registro = new HashMap<>();
+	private final Map<Bloco, Rotulo> rotulos = new HashMap<>();
+	private final List<Trecho> trechos = new ArrayList<>();
+	private int[] codigo = new int[64];
+	private int tamanho;
+
+	private static final class Rotulo {
+		private int posicao = -1;
+		private final List<Integer> pendentes = new ArrayList<>();
+	}
+
+	// Cópias dos phis de uma aresta crítica, emitidas depois dos blocos
+	private record Trecho(Rotulo rotulo, Bloco de, Bloco para) {
+	}
+
+	private Baixa(Funcao funcao, int valores) {
+		this.funcao = funcao;
+		zero = funcao.variaveis + valores;
+		auxiliar = zero + 1;
+	}
+
+	public static Codigo baixe(Funcao funcao) {
+		final Baixa baixa = new Baixa(funcao, funcao.numere());
+		baixa.conte();
+		final List<Bloco> ordem = funcao.ordem();
+		baixa.emita(CONST, baixa.zero, 0);
+		for (int i = 0; i < ordem.size(); i++) {
+			baixa.gere(ordem.get(i), i + 1 < ordem.size() ? ordem.get(i + 1) : null);
+		}
+		for (Trecho t : baixa.trechos) {
+			baixa.marque(t.rotulo());
+			baixa.copie(t.de(), t.para());
+			baixa.salte(t.para());
+		}
+		return new Codigo(Arrays.copyOf(baixa.codigo, baixa.tamanho), funcao.textos.toArray(new String[0]),
+				baixa.auxiliar + 1);
+	}
+
+	// Usos de cada valor e se algum deles precisa do valor em um registrador
+	private void conte() {
+		for (Bloco b : funcao.ordem()) {
+			for (Valor v : b.phis) {
+				for (int i = 0; i < v.operandos.size(); i++) {
+					use(v.operando(i), true);
+				}
+			}
+			for (Valor v : b.instrucoes) {
+				for (int i = 0; i < v.operandos.size(); i++) {
+					use(v.operando(i), !imediato(v, i));
+				}
+			}
+			if (b.terminal == Bloco.DESVIO || b.terminal == Bloco.ESCOLHA) {
+				use(b.condicao(), true);
+			} else if (b.terminal == Bloco.FIM) {
+				for (int slot = 0; slot < b.finais.size(); slot++) {
+					use(b.valorFinal(slot), true);
+				}
+			}
+		}
+	}
+
+	private void use(Valor v, boolean precisa) {
+		usos.merge(v, 1, Integer::sum);
+		registro.merge(v, precisa, Boolean::logicalOr);
+	}
+
+	// Constante somada ou subtraída vai direto no SOMAK
+	private static boolean imediato(Valor v, int i) {
+		final Valor k = v.operando(i);
+		return k.ehConstante() && (v.op == Valor.SOMA && (i == 1 || !v.operando(1).ehConstante())
+				|| v.op == Valor.SUB && i == 1);
+	}
+
+	private int r(Valor v) {
+		return v.op == Valor.CARGA ? v.constante : funcao.variaveis + v.numero;
+	}
+
+	/*
+	 * Blocos
+	 */
+	private void gere(Bloco b, Bloco proximo) {
+		marque(rotulo(b));
+		for (Valor v : b.instrucoes) {
+			if (!fundida(b, v)) {
+				gere(v);
+			}
+		}
+		switch (b.terminal) {
+			case Bloco.SALTO -> {
+				copie(b, b.sucessores.get(0));
+				if (b.sucessores.get(0) != proximo) {
+					salte(b.sucessores.get(0));
+				}
+			}
+			case Bloco.DESVIO -> {
+				final Valor c = b.condicao();
+				final Bloco falso = b.sucessores.get(1);
+				if (fundida(b, c)) {
+					emita(se(c.op), r(c.operando(0)), r(c.operando(1)));
+				} else {
+					emita(SEDIF, r(c), zero);
+				}
+				referencie(aresta(b, b.sucessores.get(0)));
+				copie(b, falso);
+				if (falso != proximo) {
+					salte(falso);
+				}
+			}
+			case Bloco.ESCOLHA -> escolha(b);
+			default -> {
+				final List<int[]> copias = new ArrayList<>();
+				for (int slot = 0; slot < b.finais.size(); slot++) {
+					copias.add(new int[] { slot, r(b.valorFinal(slot)) });
+				}
+				sequencie(copias);
+				emita(FIM);
+			}
+		}
+	}
+
+	// Relação definida no bloco e usada só pelo desvio dele
+	private boolean fundida(Bloco b, Valor v) {
+		return v.relacao() && v.bloco == b && b.terminal == Bloco.DESVIO && b.condicao() == v && usos.get(v) == 1;
+	}
+
+	private void escolha(Bloco b) {
+		final int[] chaves = b.chaves;
+		final Rotulo outro = aresta(b, b.sucessores.get(chaves.length));
+		final Rotulo[] casos = new Rotulo[chaves.length];
+		Arrays.setAll(casos, i -> aresta(b, b.sucessores.get(i)));
+		if (b.densa && chaves.length > 0) {
+			final int menor = chaves[0];
+			final Rotulo[] tabela = new Rotulo[chaves[chaves.length - 1] - menor + 1];
+			Arrays.fill(tabela, outro);
+			for (int i = 0; i < chaves.length; i++) {
+				tabela[chaves[i] - menor] = casos[i];
+			}
+			emita(TABELA, r(b.condicao()), menor, tabela.length);
+			referencie(outro);
+			for (Rotulo alvo : tabela) {
+				referencie(alvo);
+			}
+		} else {
+			emita(ESCOLHA, r(b.condicao()), chaves.length);
+			referencie(outro);
+			for (int i = 0; i < chaves.length; i++) {
+				emita(chaves[i]);
+				referencie(casos[i]);
+			}
+		}
+	}
+
+	// Rótulo do destino, ou de um trecho com as cópias dos phis dele
+	private Rotulo aresta(Bloco de, Bloco para) {
+		if (para.phis.isEmpty()) {
+			return rotulo(para);
+		}
+		final Trecho t = new Trecho(new Rotulo(), de, para);
+		trechos.add(t);
+		return t.rotulo();
+	}
+
+	/*
+	 * Valores
+	 */
+	private void gere(Valor v) {
+		switch (v.op) {
+			case Valor.CONST -> {
+				if (registro.getOrDefault(v, false)) {
+					emita(CONST, r(v), v.constante);
+				}
+			}
+			case Valor.CARGA -> {
+				// Já está no registrador do slot
+			}
+			case Valor.SOMA, Valor.SUB -> {
+				final Valor esq = v.operando(0);
+				final Valor dir = v.operando(1);
+				if (imediato(v, 1)) {
+					emita(SOMAK, r(v), r(esq), v.op == Valor.SOMA ? dir.constante : -dir.constante);
+				} else if (imediato(v, 0)) {
+					emita(SOMAK, r(v), r(dir), esq.constante);
+				} else {
+					emita(v.op == Valor.SOMA ? SOMA : SUB, r(v), r(esq), r(dir));
+				}
+			}
+			case Valor.MULT -> emita(MULT, r(v), r(v.operando(0)), r(v.operando(1)));
+			case Valor.DIV -> emita(DIV, r(v), r(v.operando(0)), r(v.operando(1)));
+			case Valor.POT -> emita(POT, r(v), r(v.operando(0)), r(v.operando(1)));
+			case Valor.LEIA -> emita(LEIA, r(v));
+			case Valor.ESCREVA -> emita(ESCREVA, r(v.operando(0)));
+			case Valor.EXIBA -> emita(EXIBA, v.constante);
+			case Valor.FALHA -> emita(FALHA, v.constante);
+			default -> {
+				// Relação materializada: 1, e 0 se for falsa
+				final Rotulo fim = new Rotulo();
+				emita(CONST, r(v), 1);
+				emita(se(v.op), r(v.operando(0)), r(v.operando(1)));
+				referencie(fim);
+				emita(CONST, r(v), 0);
+				marque(fim);
+			}
+		}
+	}
+
+	private static int se(int relacao) {
+		return switch (relacao) {
+			case Valor.IGUAL -> SEIGUAL;
+			case Valor.DIF -> SEDIF;
+			case Valor.MENOR -> SEMENOR;
+			case Valor.MENORIG -> SEMENORIG;
+			case Valor.MAIOR -> SEMAIOR;
+			default -> SEMAIORIG;
+		};
+	}
+
+	/*
+	 * Cópias paralelas
+	 */
+	private void copie(Bloco de, Bloco para) {
+		final int i = para.predecessores.indexOf(de);
+		final List<int[]> copias = new ArrayList<>();
+		for (Valor phi : para.phis) {
+			copias.add(new int[] { r(phi), r(phi.operando(i)) });
+		}
+		sequencie(copias);
+	}
+
+	/*
+	 * Emite as cópias (destino, origem) como se fossem simultâneas: copia
+	 * primeiro para destinos que nenhuma outra cópia lê; num ciclo, guarda
+	 * um destino no auxiliar e passa a ler dali.
+	 */
+	private void sequencie(List<int[]> copias) {
+		copias.removeIf(c -> c[0] == c[1]);
+		while (!copias.isEmpty()) {
+			int[] livre = null;
+			for (int[] c : copias) {
+				if (copias.stream().noneMatch(o -> o[1] == c[0])) {
+					livre = c;
+					break;
+				}
+			}
+			if (livre == null) {
+				final int destino = copias.get(0)[0];
+				emita(MOV, auxiliar, destino);
+				for (int[] c : copias) {
+					if (c[1] == destino) {
+						c[1] = auxiliar;
+					}
+				}
+				continue;
+			}
+			emita(MOV, livre[0], livre[1]);
+			copias.remove(livre);
+		}
+	}
+
+	/*
+	 * Emissão
+	 */
+	private Rotulo rotulo(Bloco b) {
+		return rotulos.computeIfAbsent(b, x -> new Rotulo());
+	}
+
+	private void salte(Bloco alvo) {
+		emita(SALTO);
+		referencie(rotulo(alvo));
+	}
+
+	private void marque(Rotulo rotulo) {
+		rotulo.posicao = tamanho;
+		for (int lugar : rotulo.pendentes) {
+			codigo[lugar] = tamanho;
+		}
+		rotulo.pendentes.clear();
+	}
+
+	private void referencie(Rotulo alvo) {
+		if (alvo.posicao < 0) {
+			alvo.pendentes.add(tamanho);
+		}
+		emita(alvo.posicao);
+	}
+
+	private void emita(int... valores) {
+		if (tamanho + valores.length > codigo.length) {
+			codigo = Arrays.copyOf(codigo, Math.max(codigo.length * 2, tamanho + valores.length));
+		}
+		System.arraycopy(valores, 0, codigo, tamanho, valores.length);
+		tamanho += valores.length;
+	}
+}
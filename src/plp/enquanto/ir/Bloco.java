@@ -0,0 +1,95 @@
+package plp.enquanto.ir;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Bloco básico: phis, instruções em ordem e um terminal. O i-ésimo
+ * operando de cada phi vem do i-ésimo predecessor.
+ */
+public final class Bloco {
+	public static final int SALTO = 0;   // vai para sucessores[0]
+	public static final int DESVIO = 1;  // condicao <> 0 ? sucessores[0] : sucessores[1]
+	public static final int ESCOLHA = 2; // sucessores[i] para chaves[i]; o último é o padrão
+	public static final int FIM = 3;     // grava finais[slot] na memória
+
+	final int numero;
+	final List<Valor> phis = new ArrayList<>();
+	final List<Valor> instrucoes = new ArrayList<>();
+	final List<Bloco> predecessores = new ArrayList<>();
+	final List<Bloco> sucessores = new ArrayList<>();
+
+	int terminal = SALTO;
+	Valor condicao;
+	int[] chaves;
+	boolean densa;
+	final List<Valor> finais = new ArrayList<>();
+
+	Bloco(int numero) {
+		this.numero = numero;
+	}
+
+	public int getNumero() {
+		return numero;
+	}
+
+	Valor condicao() {
+		condicao = condicao.resolva();
+		return condicao;
+	}
+
+	Valor valorFinal(int slot) {
+		final Valor v = finais.get(slot).resolva();
+		finais.set(slot, v);
+		return v;
+	}
+
+	// Remove a aresta vinda de p, com o operando correspondente dos phis
+	void removaPredecessor(Bloco p) {
+		final int i = predecessores.indexOf(p);
+		predecessores.remove(i);
+		for (Valor phi : phis) {
+			phi.operandos.remove(i);
+		}
+	}
+
+	// Troca o terminal por um salto para alvo, desligando os demais sucessores
+	void salte(Bloco alvo) {
+		for (Bloco s : sucessores) {
+			if (s != alvo) {
+				s.removaPredecessor(this);
+			}
+		}
+		sucessores.clear();
+		sucessores.add(alvo);
+		terminal = SALTO;
+		condicao = null;
+		chaves = null;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("b").append(numero).append(':');
+		for (Bloco p : predecessores) {
+			sb.append(" b").append(p.numero);
+		}
+		sb.append('\n');
+		for (Valor v : phis) {
+			sb.append("  ").append(v).append('\n');
+		}
+		for (Valor v : instrucoes) {
+			sb.append("  ").append(v).append('\n');
+		}
+		sb.append("  ");
+		switch (terminal) {
+			case SALTO -> sb.append("salto");
+			case DESVIO -> sb.append("desvio v").append(condicao().numero);
+			case ESCOLHA -> sb.append("escolha v").append(condicao().numero);
+			default -> sb.append("fim");
+		}
+		for (Bloco s : sucessores) {
+			sb.append(" b").append(s.numero);
+		}
+		return sb.append('\n').toString();
+	}
+}
@@ -0,0 +1,129 @@
+package plp.enquanto.ir;
+
+import java.util.Arrays;
+
+import plp.enquanto.Linguagem.ExpPow;
+
+/*
+ * Propagação de constantes: operações com operandos constantes viram
+ * constantes (exceto as que falhariam), identidades como x + 0 e x * 1
+ * viram o próprio x, phis cujos operandos são a mesma constante viram
+ * essa constante e desvios com condição conhecida viram saltos, o que
+ * pode deixar blocos inteiros inalcançáveis. Constantes vão para a
+ * entrada, que domina todos os blocos, e assim saem dos laços.
+ */
+final class Constantes implements Passo {
+	@Override
+	public String nome() {
+		return "constantes";
+	}
+
+	@Override
+	public boolean execute(Funcao funcao) {
+		boolean mudou = false;
+		for (Bloco b : funcao.ordem()) {
+			if (b != funcao.entrada) {
+				for (Valor v : b.instrucoes) {
+					if (v.ehConstante()) {
+						v.bloco = funcao.entrada;
+						funcao.entrada.instrucoes.add(0, v);
+						mudou = true;
+					}
+				}
+				b.instrucoes.removeIf(v -> v.bloco != b);
+			}
+			for (Valor phi : b.phis) {
+				mudou |= !phi.substituido() && phi(phi);
+			}
+			for (Valor v : b.instrucoes) {
+				mudou |= !v.substituido() && v.binaria() && dobre(v);
+			}
+			b.phis.removeIf(Valor::substituido);
+			b.instrucoes.removeIf(Valor::substituido);
+			mudou |= desvio(b);
+		}
+		return funcao.limpe() || mudou;
+	}
+
+	private static boolean phi(Valor phi) {
+		Integer k = null;
+		for (int i = 0; i < phi.operandos.size(); i++) {
+			final Valor v = phi.operando(i);
+			if (v == phi) {
+				continue;
+			} else if (!v.ehConstante() || k != null && k != v.constante) {
+				return false;
+			}
+			k = v.constante;
+		}
+		if (k == null) {
+			return false;
+		}
+		final Valor c = new Valor(Valor.CONST, phi.bloco);
+		c.constante = k;
+		phi.bloco.instrucoes.add(0, c);
+		phi.substitua(c);
+		return true;
+	}
+
+	private static boolean dobre(Valor v) {
+		final Valor esq = v.operando(0);
+		final Valor dir = v.operando(1);
+		if (esq.ehConstante() && dir.ehConstante()) {
+			try {
+				v.torneConstante(calcule(v.op, esq.constante, dir.constante));
+				return true;
+			} catch (ArithmeticException e) {
+				// Fica para a execução, que lança a mesma exceção
+				return false;
+			}
+		}
+		final Valor identidade = identidade(v.op, esq, dir);
+		if (identidade != null) {
+			v.substitua(identidade);
+			return true;
+		}
+		return false;
+	}
+
+	// x + 0, 0 + x, x - 0, x * 1, 1 * x, x / 1 e x ^ 1
+	private static Valor identidade(int op, Valor esq, Valor dir) {
+		final int k = dir.ehConstante() ? dir.constante : Integer.MIN_VALUE;
+		return switch (op) {
+			case Valor.SOMA -> k == 0 ? esq : esq.ehConstante() && esq.constante == 0 ? dir : null;
+			case Valor.SUB -> k == 0 ? esq : null;
+			case Valor.MULT -> k == 1 ? esq : esq.ehConstante() && esq.constante == 1 ? dir : null;
+			case Valor.DIV, Valor.POT -> k == 1 ? esq : null;
+			default -> null;
+		};
+	}
+
+	static int calcule(int op, int a, int b) {
+		return switch (op) {
+			case Valor.SOMA -> a + b;
+			case Valor.SUB -> a - b;
+			case Valor.MULT -> a * b;
+			case Valor.DIV -> a / b;
+			case Valor.POT -> ExpPow.potencia(a, b);
+			case Valor.IGUAL -> a == b ? 1 : 0;
+			case Valor.DIF -> a != b ? 1 : 0;
+			case Valor.MENOR -> a < b ? 1 : 0;
+			case Valor.MENORIG -> a <= b ? 1 : 0;
+			case Valor.MAIOR -> a > b ? 1 : 0;
+			case Valor.MAIORIG -> a >= b ? 1 : 0;
+			default -> throw new IllegalArgumentException("Operação não binária: " + op);
+		};
+	}
+
+	private static boolean desvio(Bloco b) {
+		if (b.terminal == Bloco.DESVIO && b.condicao().ehConstante()) {
+			b.salte(b.sucessores.get(b.condicao().constante != 0 ? 0 : 1));
+			return true;
+		} else if (b.terminal == Bloco.ESCOLHA && b.condicao().ehConstante()) {
+			final int i = Arrays.binarySearch(b.chaves, b.condicao().constante);
+			b.salte(b.sucessores.get(i >= 0 ? i : b.sucessores.size() - 1));
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,400 @@
+package plp.enquanto.ir;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import plp.enquanto.Linguagem;
+import plp.enquanto.Linguagem.*;
+
+/*
+ * Constrói a forma SSA direto da árvore, sem calcular fronteiras de
+ * dominância (Braun et al., "Simple and Efficient Construction of Static
+ * Single Assignment Form"): cada bloco guarda a última definição de cada
+ * variável, e a leitura de uma variável sem definição local procura nos
+ * predecessores, criando phis nas junções. Blocos cujos predecessores
+ * ainda não são todos conhecidos (cabeçalhos de laço) ficam abertos até
+ * serem selados. Contadores escondidos de para e repita são variáveis a
+ * partir de getVariaveis(), que nunca voltam para a memória.
+ */
+public final class Construtor {
+	private final Funcao funcao;
+	private final Map<Bloco, Map<Integer, Valor>> definicoes = new HashMap<>();
+	private final Map<Bloco, Map<Integer, Valor>> incompletos = new HashMap<>();
+	private final Set<Bloco> selados = new HashSet<>();
+	private Bloco atual;
+	private int ocultas;
+
+	private Construtor(int variaveis) {
+		funcao = new Funcao(variaveis);
+		ocultas = variaveis;
+	}
+
+	public static Funcao construa(Programa programa) {
+		final Construtor construtor = new Construtor(programa.getVariaveis());
+		final Funcao funcao = construtor.funcao;
+		funcao.entrada = construtor.novoBloco();
+		construtor.sele(funcao.entrada);
+		construtor.atual = funcao.entrada;
+		programa.getComandos().forEach(construtor::gere);
+		final Bloco fim = construtor.atual;
+		for (int slot = 0; slot < funcao.variaveis; slot++) {
+			fim.finais.add(construtor.leia(slot, fim));
+		}
+		fim.terminal = Bloco.FIM;
+		funcao.limpe();
+		return funcao;
+	}
+
+	/*
+	 * Comandos
+	 */
+	private void gere(Comando comando) {
+		if (comando instanceof Atribuicao a) {
+			final int[] slots = a.getSlots();
+			// Todas as expressões são avaliadas antes de qualquer atribuição
+			final List<Valor> valores = new ArrayList<>();
+			for (Expressao e : a.getExps()) {
+				valores.add(valor(e));
+			}
+			final int n = Math.min(slots.length, valores.size());
+			for (int i = 0; i < n; i++) {
+				defina(slots[i], atual, valores.get(i));
+			}
+			if (n < slots.length) {
+				// Atribuição incompleta (recuperada pelo parser) falha como em Atribuicao.execute()
+				emita(Valor.FALHA).constante = funcao.texto("Index " + n + " out of bounds for length " + n);
+			}
+		} else if (comando instanceof Linguagem.Bloco b) {
+			b.getComandos().forEach(this::gere);
+		} else if (comando instanceof Se se) {
+			final Bloco fim = novoBloco();
+			for (int i = 0; i < se.getCondicoes().size(); i++) {
+				final Bloco ramo = novoBloco();
+				final Bloco proximo = novoBloco();
+				desvie(se.getCondicoes().get(i), ramo, proximo);
+				entre(ramo);
+				gere(se.getRamos().get(i));
+				salte(fim);
+				entre(proximo);
+			}
+			if (se.getSenao() != null) {
+				gere(se.getSenao());
+			}
+			salte(fim);
+			entre(fim);
+		} else if (comando instanceof Enquanto e) {
+			final Bloco teste = novoBloco();
+			final Bloco corpo = novoBloco();
+			final Bloco saida = novoBloco();
+			salte(teste);
+			atual = teste;
+			desvie(e.getCondicao(), corpo, saida);
+			entre(corpo);
+			gere(e.getComando());
+			salte(teste);
+			sele(teste);
+			entre(saida);
+		} else if (comando instanceof Repita r) {
+			final Valor vezes = valor(r.getVezes());
+			final int contador = ocultas++;
+			defina(contador, atual, constante(0));
+			final Bloco teste = novoBloco();
+			final Bloco corpo = novoBloco();
+			final Bloco saida = novoBloco();
+			salte(teste);
+			atual = teste;
+			ramifique(binaria(Valor.MAIORIG, leia(contador, teste), vezes), saida, corpo);
+			entre(corpo);
+			gere(r.getCorpo());
+			defina(contador, atual, binaria(Valor.SOMA, leia(contador, atual), constante(1)));
+			salte(teste);
+			sele(teste);
+			entre(saida);
+		} else if (comando instanceof Para p) {
+			// O contador é separado da variável, como em Para.execute()
+			final int contador = ocultas++;
+			defina(contador, atual, valor(p.getInicio()));
+			final Bloco teste = novoBloco();
+			final Bloco corpo = novoBloco();
+			final Bloco saida = novoBloco();
+			salte(teste);
+			atual = teste;
+			final Valor i = leia(contador, teste);
+			ramifique(binaria(Valor.MAIOR, i, valor(p.getFim())), saida, corpo);
+			entre(corpo);
+			defina(p.getSlot(), corpo, leia(contador, corpo));
+			gere(p.getCorpo());
+			defina(contador, atual, binaria(Valor.SOMA, leia(contador, atual), constante(1)));
+			salte(teste);
+			sele(teste);
+			entre(saida);
+		} else if (comando instanceof Escolha e) {
+			escolha(e);
+		} else if (comando instanceof Exiba e) {
+			emita(Valor.EXIBA).constante = funcao.texto(e.getTexto());
+		} else if (comando instanceof ExibaExp e) {
+			escreva(valor(e.getExp()));
+		} else if (comando instanceof Escreva e) {
+			escreva(valor(e.getExp()));
+		} else if (!(comando instanceof Skip)) {
+			throw new IllegalArgumentException("Comando não suportado: " + comando.getClass().getSimpleName());
+		}
+	}
+
+	private void escolha(Escolha e) {
+		final Valor seletor = valor(e.getSeletor());
+		final Bloco origem = atual;
+		final Bloco fim = novoBloco();
+		final List<Bloco> casos = new ArrayList<>();
+		for (int i = 0; i <= e.getCasos().length; i++) {
+			final Bloco caso = novoBloco();
+			ligue(origem, caso);
+			casos.add(caso);
+		}
+		origem.terminal = Bloco.ESCOLHA;
+		origem.condicao = seletor;
+		origem.chaves = e.getChaves();
+		origem.densa = e instanceof EscolhaDensa;
+		for (int i = 0; i < e.getCasos().length; i++) {
+			entre(casos.get(i));
+			gere(e.getCasos()[i]);
+			salte(fim);
+		}
+		// O último sucessor é o padrão
+		entre(casos.get(casos.size() - 1));
+		if (e.getOutro() != null) {
+			gere(e.getOutro());
+		}
+		salte(fim);
+		entre(fim);
+	}
+
+	/*
+	 * Condições viram desvios
+	 */
+	private void desvie(Bool b, Bloco verdadeiro, Bloco falso) {
+		if (b instanceof Booleano v) {
+			salte(v.getValor() ? verdadeiro : falso);
+		} else if (b instanceof NaoLogico n) {
+			desvie(n.getOperando(), falso, verdadeiro);
+		} else if (b instanceof ELogico e) {
+			final Bloco meio = novoBloco();
+			desvie(e.getEsq(), meio, falso);
+			entre(meio);
+			desvie(e.getDir(), verdadeiro, falso);
+		} else if (b instanceof OuLogico o) {
+			final Bloco meio = novoBloco();
+			desvie(o.getEsq(), verdadeiro, meio);
+			entre(meio);
+			desvie(o.getDir(), verdadeiro, falso);
+		} else if (b instanceof XorLogico x) {
+			final Valor esq = logico(x.getEsq());
+			final Valor dir = logico(x.getDir());
+			ramifique(binaria(Valor.DIF, esq, dir), verdadeiro, falso);
+		} else if (b instanceof OpBin<?> op) {
+			@SuppressWarnings("unchecked")
+			final OpBin<Expressao> rel = (OpBin<Expressao>) op;
+			final Valor esq = valor(rel.getEsq());
+			final Valor dir = valor(rel.getDir());
+			ramifique(binaria(relacao(b), esq, dir), verdadeiro, falso);
+		} else {
+			throw new IllegalArgumentException("Condição não suportada: " + b.getClass().getSimpleName());
+		}
+	}
+
+	private static int relacao(Bool b) {
+		if (b instanceof ExpIgual) {
+			return Valor.IGUAL;
+		} else if (b instanceof ExpDiferente) {
+			return Valor.DIF;
+		} else if (b instanceof ExpMenor) {
+			return Valor.MENOR;
+		} else if (b instanceof ExpMenorIgual) {
+			return Valor.MENORIG;
+		} else if (b instanceof ExpMaior) {
+			return Valor.MAIOR;
+		} else if (b instanceof ExpMaiorIgual) {
+			return Valor.MAIORIG;
+		}
+		throw new IllegalArgumentException("Condição não suportada: " + b.getClass().getSimpleName());
+	}
+
+	// Condição como 1 ou 0, por meio de um phi na junção
+	private Valor logico(Bool b) {
+		final int resultado = ocultas++;
+		final Bloco verdadeiro = novoBloco();
+		final Bloco falso = novoBloco();
+		final Bloco fim = novoBloco();
+		desvie(b, verdadeiro, falso);
+		entre(verdadeiro);
+		defina(resultado, atual, constante(1));
+		salte(fim);
+		entre(falso);
+		defina(resultado, atual, constante(0));
+		salte(fim);
+		entre(fim);
+		return leia(resultado, fim);
+	}
+
+	/*
+	 * Expressoes
+	 */
+	private Valor valor(Expressao exp) {
+		if (exp instanceof Inteiro i) {
+			return constante(i.getValor());
+		} else if (exp instanceof Id id) {
+			return leia(id.getSlot(), atual);
+		} else if (exp instanceof Leia) {
+			return emita(Valor.LEIA);
+		} else if (exp instanceof OpBin<?> op) {
+			@SuppressWarnings("unchecked")
+			final OpBin<Expressao> bin = (OpBin<Expressao>) op;
+			final Valor esq = valor(bin.getEsq());
+			final Valor dir = valor(bin.getDir());
+			return binaria(operacao(exp), esq, dir);
+		}
+		throw new IllegalArgumentException("Expressão não suportada: " + exp.getClass().getSimpleName());
+	}
+
+	private static int operacao(Expressao exp) {
+		if (exp instanceof ExpSoma) {
+			return Valor.SOMA;
+		} else if (exp instanceof ExpSub) {
+			return Valor.SUB;
+		} else if (exp instanceof ExpMult) {
+			return Valor.MULT;
+		} else if (exp instanceof ExpDiv) {
+			return Valor.DIV;
+		} else if (exp instanceof ExpPow) {
+			return Valor.POT;
+		}
+		throw new IllegalArgumentException("Expressão não suportada: " + exp.getClass().getSimpleName());
+	}
+
+	private void escreva(Valor valor) {
+		emita(Valor.ESCREVA).operandos.add(valor);
+	}
+
+	private Valor constante(int k) {
+		final Valor v = emita(Valor.CONST);
+		v.constante = k;
+		return v;
+	}
+
+	private Valor binaria(int op, Valor esq, Valor dir) {
+		final Valor v = emita(op);
+		v.operandos.add(esq);
+		v.operandos.add(dir);
+		return v;
+	}
+
+	private Valor emita(int op) {
+		final Valor v = new Valor(op, atual);
+		atual.instrucoes.add(v);
+		return v;
+	}
+
+	/*
+	 * Variáveis
+	 */
+	private void defina(int variavel, Bloco bloco, Valor valor) {
+		definicoes.computeIfAbsent(bloco, b -> new HashMap<>()).put(variavel, valor);
+	}
+
+	private Valor leia(int variavel, Bloco bloco) {
+		// Cadeias de blocos com um só predecessor são percorridas sem recursão
+		final List<Bloco> caminho = new ArrayList<>();
+		Bloco b = bloco;
+		Valor v;
+		while (true) {
+			v = definicoes.getOrDefault(b, Map.of()).get(variavel);
+			if (v != null) {
+				break;
+			} else if (selados.contains(b) && b.predecessores.size() == 1) {
+				caminho.add(b);
+				b = b.predecessores.get(0);
+			} else {
+				v = leiaRecursivo(variavel, b);
+				break;
+			}
+		}
+		for (Bloco c : caminho) {
+			defina(variavel, c, v);
+		}
+		return v;
+	}
+
+	private Valor leiaRecursivo(int variavel, Bloco bloco) {
+		final Valor v;
+		if (!selados.contains(bloco)) {
+			// Predecessores ainda desconhecidos: o phi é completado ao selar
+			v = phi(bloco);
+			incompletos.computeIfAbsent(bloco, b -> new HashMap<>()).put(variavel, v);
+		} else if (bloco.predecessores.isEmpty()) {
+			v = new Valor(bloco == funcao.entrada && variavel < funcao.variaveis ? Valor.CARGA : Valor.CONST, bloco);
+			v.constante = v.op == Valor.CARGA ? variavel : 0;
+			bloco.instrucoes.add(0, v);
+		} else {
+			v = phi(bloco);
+			defina(variavel, bloco, v);
+			adicioneOperandos(variavel, v);
+		}
+		defina(variavel, bloco, v);
+		return v;
+	}
+
+	private Valor phi(Bloco bloco) {
+		final Valor v = new Valor(Valor.PHI, bloco);
+		bloco.phis.add(v);
+		return v;
+	}
+
+	private void adicioneOperandos(int variavel, Valor phi) {
+		for (Bloco p : phi.bloco.predecessores) {
+			phi.operandos.add(leia(variavel, p));
+		}
+	}
+
+	/*
+	 * Blocos
+	 */
+	private Bloco novoBloco() {
+		return funcao.novoBloco();
+	}
+
+	private void ligue(Bloco de, Bloco para) {
+		de.sucessores.add(para);
+		para.predecessores.add(de);
+	}
+
+	private void salte(Bloco alvo) {
+		atual.terminal = Bloco.SALTO;
+		ligue(atual, alvo);
+	}
+
+	private void ramifique(Valor condicao, Bloco verdadeiro, Bloco falso) {
+		atual.terminal = Bloco.DESVIO;
+		atual.condicao = condicao;
+		ligue(atual, verdadeiro);
+		ligue(atual, falso);
+	}
+
+	// Todos os predecessores são conhecidos: sela e continua nele
+	private void entre(Bloco bloco) {
+		sele(bloco);
+		atual = bloco;
+	}
+
+	private void sele(Bloco bloco) {
+		if (selados.add(bloco)) {
+			final Map<Integer, Valor> pendentes = incompletos.remove(bloco);
+			if (pendentes != null) {
+				pendentes.forEach(this::adicioneOperandos);
+			}
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package plp.enquanto.ir;
+
+/*
+ * Propagação de cópias: um phi cujos operandos são todos o mesmo valor
+ * (ou o próprio phi) é só uma cópia desse valor. A construção deixa
+ * muitos desses nos cabeçalhos de laço, para variáveis que o corpo não
+ * altera.
+ */
+final class Copias implements Passo {
+	@Override
+	public String nome() {
+		return "copias";
+	}
+
+	@Override
+	public boolean execute(Funcao funcao) {
+		boolean mudou = false;
+		boolean repete;
+		do {
+			repete = false;
+			for (Bloco b : funcao.blocos) {
+				for (Valor phi : b.phis) {
+					if (!phi.substituido()) {
+						final Valor unico = unico(phi);
+						if (unico != null) {
+							phi.substitua(unico);
+							repete = true;
+						}
+					}
+				}
+				repete |= b.phis.removeIf(Valor::substituido);
+			}
+			mudou |= repete;
+		} while (repete);
+		return mudou;
+	}
+
+	// O único valor distinto do próprio phi, se houver só um
+	private static Valor unico(Valor phi) {
+		Valor unico = null;
+		for (int i = 0; i < phi.operandos.size(); i++) {
+			final Valor v = phi.operando(i);
+			if (v != phi && v != unico) {
+				if (unico != null) {
+					return null;
+				}
+				unico = v;
+			}
+		}
+		return unico;
+	}
+}
@@ -0,0 +1,116 @@
+package plp.enquanto.ir;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Grafo de fluxo de controle de um programa em forma SSA. As variáveis
+ * 0..variaveis-1 são os slots da memória: são lidas por CARGA e, no bloco
+ * de FIM, gravadas de volta com os valores finais.
+ */
+public final class Funcao {
+	final List<Bloco> blocos = new ArrayList<>();
+	final List<String> textos = new ArrayList<>();
+	final int variaveis;
+	Bloco entrada;
+
+	Funcao(int variaveis) {
+		this.variaveis = variaveis;
+	}
+
+	public int getVariaveis() {
+		return variaveis;
+	}
+
+	Bloco novoBloco() {
+		final Bloco b = new Bloco(blocos.size());
+		blocos.add(b);
+		return b;
+	}
+
+	int texto(String texto) {
+		final int i = textos.indexOf(texto);
+		if (i >= 0) {
+			return i;
+		}
+		textos.add(texto);
+		return textos.size() - 1;
+	}
+
+	// Blocos alcançáveis em pós-ordem reversa a partir da entrada
+	List<Bloco> ordem() {
+		final List<Bloco> ordem = new ArrayList<>();
+		final Set<Bloco> vistos = new HashSet<>();
+		final Deque<Bloco> pilha = new ArrayDeque<>();
+		final Deque<Integer> proximos = new ArrayDeque<>();
+		vistos.add(entrada);
+		pilha.push(entrada);
+		proximos.push(0);
+		while (!pilha.isEmpty()) {
+			final Bloco b = pilha.peek();
+			final int i = proximos.pop();
+			if (i < b.sucessores.size()) {
+				proximos.push(i + 1);
+				final Bloco s = b.sucessores.get(i);
+				if (vistos.add(s)) {
+					pilha.push(s);
+					proximos.push(0);
+				}
+			} else {
+				pilha.pop();
+				ordem.add(b);
+			}
+		}
+		Collections.reverse(ordem);
+		return ordem;
+	}
+
+	// Descarta blocos inalcançáveis e as arestas que saem deles
+	boolean limpe() {
+		final List<Bloco> alcancaveis = ordem();
+		if (alcancaveis.size() == blocos.size()) {
+			return false;
+		}
+		final Set<Bloco> vivos = new HashSet<>(alcancaveis);
+		for (Bloco b : blocos) {
+			if (!vivos.contains(b)) {
+				for (Bloco s : b.sucessores) {
+					if (vivos.contains(s)) {
+						s.removaPredecessor(b);
+					}
+				}
+			}
+		}
+		blocos.retainAll(vivos);
+		return true;
+	}
+
+	// Numera os valores em ordem, para nomes e registradores
+	int numere() {
+		int n = 0;
+		for (Bloco b : ordem()) {
+			for (Valor v : b.phis) {
+				v.numero = n++;
+			}
+			for (Valor v : b.instrucoes) {
+				v.numero = n++;
+			}
+		}
+		return n;
+	}
+
+	@Override
+	public String toString() {
+		numere();
+		final StringBuilder sb = new StringBuilder();
+		for (Bloco b : ordem()) {
+			sb.append(b);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,52 @@
+package plp.enquanto.ir;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Executa uma sequência de passos sobre a função, repetindo enquanto
+ * algum deles fizer mudanças (até RODADAS vezes): uma propagação de
+ * constantes pode criar phis triviais, que criam redundâncias, que deixam
+ * valores mortos.
+ */
+public final class Gerenciador {
+	private static final int RODADAS = 10;
+
+	private final List<Passo> passos;
+
+	public Gerenciador(List<Passo> passos) {
+		this.passos = passos;
+	}
+
+	public static Gerenciador padrao() {
+		return new Gerenciador(List.of(new Constantes(), new Copias(), new Numeracao(), new Mortos()));
+	}
+
+	// Passos pelo nome, separados por vírgula (--passos=constantes,mortos)
+	public static Gerenciador de(String nomes) {
+		final List<Passo> passos = new ArrayList<>();
+		for (String nome : nomes.split(",")) {
+			passos.add(switch (nome.trim()) {
+				case "constantes" -> new Constantes();
+				case "copias" -> new Copias();
+				case "numeracao" -> new Numeracao();
+				case "mortos" -> new Mortos();
+				default -> throw new IllegalArgumentException("Passo desconhecido: " + nome);
+			});
+		}
+		return new Gerenciador(passos);
+	}
+
+	public Funcao execute(Funcao funcao) {
+		for (int rodada = 0; rodada < RODADAS; rodada++) {
+			boolean mudou = false;
+			for (Passo passo : passos) {
+				mudou |= passo.execute(funcao);
+			}
+			if (!mudou) {
+				break;
+			}
+		}
+		return funcao;
+	}
+}
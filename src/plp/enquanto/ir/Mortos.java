@@ -0,0 +1,54 @@
+package plp.enquanto.ir;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ * Eliminação de valores mortos: marca a partir do que tem efeito (leia,
+ * escritas, operações que podem falhar), das condições dos desvios e dos
+ * valores finais das variáveis, seguindo os operandos; o que não foi
+ * marcado é removido. Pega também atribuições cujo valor é sobrescrito
+ * antes de ser lido, que na forma SSA são só valores sem uso.
+ */
+final class Mortos implements Passo {
+	@Override
+	public String nome() {
+		return "mortos";
+	}
+
+	@Override
+	public boolean execute(Funcao funcao) {
+		final Set<Valor> vivos = new HashSet<>();
+		final Deque<Valor> pendentes = new ArrayDeque<>();
+		for (Bloco b : funcao.blocos) {
+			for (Valor v : b.instrucoes) {
+				if (!v.substituido() && v.efeito()) {
+					pendentes.push(v);
+				}
+			}
+			if (b.terminal == Bloco.DESVIO || b.terminal == Bloco.ESCOLHA) {
+				pendentes.push(b.condicao());
+			} else if (b.terminal == Bloco.FIM) {
+				for (int slot = 0; slot < b.finais.size(); slot++) {
+					pendentes.push(b.valorFinal(slot));
+				}
+			}
+		}
+		while (!pendentes.isEmpty()) {
+			final Valor v = pendentes.pop();
+			if (vivos.add(v)) {
+				for (int i = 0; i < v.operandos.size(); i++) {
+					pendentes.push(v.operando(i));
+				}
+			}
+		}
+		boolean mudou = false;
+		for (Bloco b : funcao.blocos) {
+			mudou |= b.phis.removeIf(v -> !vivos.contains(v));
+			mudou |= b.instrucoes.removeIf(v -> !vivos.contains(v));
+		}
+		return mudou;
+	}
+}
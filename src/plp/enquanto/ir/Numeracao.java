@@ -0,0 +1,135 @@
+package plp.enquanto.ir;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Numeração global de valores: percorre a árvore de dominadores em
+ * pré-ordem com uma tabela de expressões já calculadas em blocos que
+ * dominam o atual; uma constante ou operação repetida vira o valor já
+ * calculado. Operações comutativas têm os operandos normalizados. Os
+ * dominadores são calculados pelo algoritmo de Cooper, Harvey e Kennedy.
+ */
+final class Numeracao implements Passo {
+	// Marca, na pilha, o fim da subárvore do bloco de baixo
+	private static final Bloco SAIDA = new Bloco(-1);
+
+	private record Chave(int op, int constante, Valor esq, Valor dir) {
+	}
+
+	@Override
+	public String nome() {
+		return "numeracao";
+	}
+
+	@Override
+	public boolean execute(Funcao funcao) {
+		funcao.numere();
+		final List<Bloco> ordem = funcao.ordem();
+		final Map<Bloco, List<Bloco>> filhos = dominados(ordem);
+		final Map<Chave, Valor> tabela = new HashMap<>();
+		boolean mudou = false;
+		// Pilha explícita: cada bloco aparece na entrada e, com as chaves que criou, na saída
+		final Deque<Bloco> pilha = new ArrayDeque<>();
+		final Deque<List<Chave>> criadas = new ArrayDeque<>();
+		pilha.push(ordem.get(0));
+		while (!pilha.isEmpty()) {
+			final Bloco b = pilha.pop();
+			if (b == SAIDA) {
+				criadas.pop().forEach(tabela::remove);
+				continue;
+			}
+			final List<Chave> novas = new ArrayList<>();
+			for (Valor v : b.instrucoes) {
+				final Chave chave = chave(v);
+				if (chave == null) {
+					continue;
+				}
+				final Valor anterior = tabela.get(chave);
+				if (anterior != null) {
+					v.substitua(anterior);
+					mudou = true;
+				} else {
+					tabela.put(chave, v);
+					novas.add(chave);
+				}
+			}
+			b.instrucoes.removeIf(Valor::substituido);
+			criadas.push(novas);
+			pilha.push(SAIDA);
+			for (Bloco f : filhos.getOrDefault(b, List.of())) {
+				pilha.push(f);
+			}
+		}
+		return mudou;
+	}
+
+	// Só constantes e operações binárias; leia e escritas nunca se repetem
+	private static Chave chave(Valor v) {
+		if (v.ehConstante()) {
+			return new Chave(Valor.CONST, v.constante, null, null);
+		} else if (!v.binaria()) {
+			return null;
+		}
+		Valor esq = v.operando(0);
+		Valor dir = v.operando(1);
+		final boolean comutativa = v.op == Valor.SOMA || v.op == Valor.MULT || v.op == Valor.IGUAL || v.op == Valor.DIF;
+		if (comutativa && esq.numero > dir.numero) {
+			final Valor t = esq;
+			esq = dir;
+			dir = t;
+		}
+		return new Chave(v.op, 0, esq, dir);
+	}
+
+	// Filhos de cada bloco na árvore de dominadores
+	static Map<Bloco, List<Bloco>> dominados(List<Bloco> ordem) {
+		final Map<Bloco, Integer> indice = new HashMap<>();
+		for (int i = 0; i < ordem.size(); i++) {
+			indice.put(ordem.get(i), i);
+		}
+		final int[] idom = new int[ordem.size()];
+		Arrays.fill(idom, -1);
+		idom[0] = 0;
+		boolean mudou = true;
+		while (mudou) {
+			mudou = false;
+			for (int i = 1; i < ordem.size(); i++) {
+				int novo = -1;
+				for (Bloco p : ordem.get(i).predecessores) {
+					final int j = indice.getOrDefault(p, -1);
+					if (j < 0 || idom[j] < 0) {
+						continue;
+					}
+					novo = novo < 0 ? j : intersecao(idom, novo, j);
+				}
+				if (novo != idom[i]) {
+					idom[i] = novo;
+					mudou = true;
+				}
+			}
+		}
+		final Map<Bloco, List<Bloco>> filhos = new HashMap<>();
+		for (int i = 1; i < ordem.size(); i++) {
+			filhos.computeIfAbsent(ordem.get(idom[i]), b -> new ArrayList<>()).add(ordem.get(i));
+		}
+		return filhos;
+	}
+
+	private static int intersecao(int[] idom, int a, int b) {
+		while (a != b) {
+			while (a > b) {
+				a = idom[a];
+			}
+			while (b > a) {
+				b = idom[b];
+			}
+		}
+		return a;
+	}
+}
@@ -0,0 +1,11 @@
+package plp.enquanto.ir;
+
+/*
+ * Otimização sobre a forma SSA. Devolve true se mudou alguma coisa, para
+ * que o Gerenciador repita a sequência até estabilizar.
+ */
+public interface Passo {
+	String nome();
+
+	boolean execute(Funcao funcao);
+}
@@ -0,0 +1,128 @@
+package plp.enquanto.ir;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Instrução em forma SSA: cada valor é definido uma única vez e os
+ * operandos são os próprios valores que os definem. Um valor substituído
+ * por uma otimização aponta para o substituto; operando(i) já devolve o
+ * valor final da cadeia.
+ */
+public final class Valor {
+	public static final int CONST = 0;    // constante
+	public static final int CARGA = 1;    // valor da variável (constante = slot) na entrada
+	public static final int PHI = 2;      // um operando por predecessor do bloco
+	public static final int SOMA = 3;
+	public static final int SUB = 4;
+	public static final int MULT = 5;
+	public static final int DIV = 6;
+	public static final int POT = 7;
+	public static final int IGUAL = 8;    // relações valem 1 ou 0
+	public static final int DIF = 9;
+	public static final int MENOR = 10;
+	public static final int MENORIG = 11;
+	public static final int MAIOR = 12;
+	public static final int MAIORIG = 13;
+	public static final int LEIA = 14;
+	public static final int ESCREVA = 15; // escreva operando(0)
+	public static final int EXIBA = 16;   // exiba textos[constante]
+	public static final int FALHA = 17;   // IndexOutOfBoundsException(textos[constante])
+
+	private static final String[] NOMES = { "const", "carga", "phi", "soma", "sub", "mult", "div", "pot",
+			"igual", "dif", "menor", "menorig", "maior", "maiorig", "leia", "escreva", "exiba", "falha" };
+
+	int op;
+	int constante;
+	final List<Valor> operandos = new ArrayList<>();
+	Bloco bloco;
+	int numero;
+	private Valor substituto;
+
+	Valor(int op, Bloco bloco) {
+		this.op = op;
+		this.bloco = bloco;
+	}
+
+	public int getOp() {
+		return op;
+	}
+
+	public int getConstante() {
+		return constante;
+	}
+
+	public Valor operando(int i) {
+		final Valor v = operandos.get(i).resolva();
+		operandos.set(i, v);
+		return v;
+	}
+
+	// Valor final da cadeia de substituições
+	Valor resolva() {
+		Valor v = this;
+		while (v.substituto != null) {
+			v = v.substituto;
+		}
+		return v;
+	}
+
+	void substitua(Valor novo) {
+		if (novo.resolva() != this) {
+			substituto = novo;
+		}
+	}
+
+	boolean substituido() {
+		return substituto != null;
+	}
+
+	// Torna-se a constante k, sem operandos
+	void torneConstante(int k) {
+		op = CONST;
+		constante = k;
+		operandos.clear();
+	}
+
+	boolean binaria() {
+		return op >= SOMA && op <= MAIORIG;
+	}
+
+	boolean relacao() {
+		return op >= IGUAL && op <= MAIORIG;
+	}
+
+	boolean ehConstante() {
+		return op == CONST;
+	}
+
+	// Não pode ser removido mesmo sem usos
+	boolean efeito() {
+		return op >= LEIA || podeFalhar();
+	}
+
+	// Divisão por zero lança exceção
+	boolean podeFalhar() {
+		if (op == DIV) {
+			final Valor d = operando(1);
+			return !(d.ehConstante() && d.constante != 0);
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		if (op < ESCREVA) {
+			sb.append('v').append(numero).append(" = ");
+		}
+		sb.append(NOMES[op]);
+		if (op == CONST || op == CARGA || op == EXIBA || op == FALHA) {
+			sb.append(' ').append(constante);
+		}
+		for (int i = 0; i < operandos.size(); i++) {
+			sb.append(" v").append(operando(i).numero);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,463 @@
+package plp.enquanto.jvm;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Corpo de um método estático. Os parâmetros são referências (por exemplo
+ * "[I") ou int ("I") e todas as demais variáveis locais são int, inicializadas no
+ * prólogo. Assim os quadros do StackMapTable só variam na altura da pilha,
+ * que nos pontos de desvio contém apenas valores int; a exceção na pilha
+ * de um tratador é a única referência.
+ */
+final class Codigo {
+	static final int NOP = 0;
+	static final int ACONST_NULL = 1;
+	static final int ICONST_0 = 3;
+	static final int BIPUSH = 16;
+	static final int SIPUSH = 17;
+	static final int LDC = 18;
+	static final int LDC_W = 19;
+	static final int ILOAD = 21;
+	static final int ALOAD = 25;
+	static final int IALOAD = 46;
+	static final int ISTORE = 54;
+	static final int IASTORE = 79;
+	static final int POP = 87;
+	static final int DUP = 89;
+	static final int IADD = 96;
+	static final int ISUB = 100;
+	static final int IMUL = 104;
+	static final int IDIV = 108;
+	static final int INEG = 116;
+	static final int IUSHR = 124;
+	static final int IAND = 126;
+	static final int IXOR = 130;
+	static final int IINC = 132;
+	static final int IFEQ = 153;
+	static final int IFNE = 154;
+	static final int IFGE = 156;
+	static final int IF_ICMPEQ = 159;
+	static final int IF_ICMPNE = 160;
+	static final int IF_ICMPLT = 161;
+	static final int IF_ICMPGE = 162;
+	static final int IF_ICMPGT = 163;
+	static final int IF_ICMPLE = 164;
+	static final int GOTO = 167;
+	static final int TABLESWITCH = 170;
+	static final int LOOKUPSWITCH = 171;
+	static final int IRETURN = 172;
+	static final int RETURN = 177;
+	static final int ATHROW = 191;
+	static final int GETSTATIC = 178;
+	static final int PUTSTATIC = 179;
+	static final int INVOKEVIRTUAL = 182;
+	static final int INVOKESPECIAL = 183;
+	static final int INVOKESTATIC = 184;
+	static final int NEW = 187;
+	static final int NEWARRAY = 188;
+	// Tipo do vetor criado por NEWARRAY
+	static final int T_INT = 10;
+	static final int WIDE = 196;
+
+	// Desvios usam deslocamentos de 16 bits
+	private static final int LIMITE = Short.MAX_VALUE;
+	// Altura do quadro de um tratador: só a exceção na pilha
+	private static final int EXCECAO = -1;
+
+	static final class Rotulo {
+		private int posicao = -1;
+		private int pilha = -1;
+		private final List<int[]> pendentes = new ArrayList<>();
+
+		Rotulo() {
+		}
+
+		// Para rótulos que podem ficar sem desvios mas precisam de altura conhecida
+		Rotulo(int pilha) {
+			this.pilha = pilha;
+		}
+	}
+
+	private final Montador montador;
+	private final String[] parametros;
+	private byte[] bytes = new byte[256];
+	private int tamanho;
+	private int locais;
+	private int pilha;
+	private int maxPilha;
+	private boolean desviou;
+	private final Map<Integer, Integer> quadros = new TreeMap<>();
+	// Início, fim e tratador de cada trecho protegido
+	private final List<int[]> tratadores = new ArrayList<>();
+
+	Codigo(Montador montador, String... parametros) {
+		this.montador = montador;
+		this.parametros = parametros;
+	}
+
+	int novaLocal() {
+		return parametros.length + locais++;
+	}
+
+	int getLocais() {
+		return locais;
+	}
+
+	int getPilha() {
+		return pilha;
+	}
+
+	int getPosicao() {
+		return tamanho;
+	}
+
+	/*
+	 * Começa aqui o tratador de qualquer exceção lançada em [inicio, fim),
+	 * com a exceção no topo da pilha. Deve seguir um desvio incondicional.
+	 */
+	void trate(int inicio, int fim) {
+		tratadores.add(new int[] { inicio, fim, tamanho });
+		quadros.put(tamanho, EXCECAO);
+		desviou = false;
+		pilha = 1;
+		maxPilha = Math.max(maxPilha, pilha);
+	}
+
+	void op(int opcode, int delta) {
+		antes();
+		u1(opcode);
+		empilhe(delta);
+		if (opcode == RETURN || opcode == IRETURN || opcode == ATHROW) {
+			desviou = true;
+		}
+	}
+
+	void iconst(int valor) {
+		antes();
+		if (valor >= -1 && valor <= 5) {
+			u1(ICONST_0 + valor);
+		} else if (valor >= Byte.MIN_VALUE && valor <= Byte.MAX_VALUE) {
+			u1(BIPUSH);
+			u1(valor);
+		} else if (valor >= Short.MIN_VALUE && valor <= Short.MAX_VALUE) {
+			u1(SIPUSH);
+			u2(valor);
+		} else {
+			constante(montador.inteiro(valor));
+		}
+		empilhe(1);
+	}
+
+	void ldc(String texto) {
+		antes();
+		constante(montador.texto(texto));
+		empilhe(1);
+	}
+
+	void iload(int local) {
+		local(ILOAD, local);
+		empilhe(1);
+	}
+
+	void aload(int local) {
+		local(ALOAD, local);
+		empilhe(1);
+	}
+
+	void istore(int local) {
+		local(ISTORE, local);
+		empilhe(-1);
+	}
+
+	void iinc(int local, int incremento) {
+		antes();
+		if (local > 0xFF || incremento < Byte.MIN_VALUE || incremento > Byte.MAX_VALUE) {
+			u1(WIDE);
+			u1(IINC);
+			u2(local);
+			u2(incremento);
+		} else {
+			u1(IINC);
+			u1(local);
+			u1(incremento);
+		}
+	}
+
+	void campo(int opcode, String dono, String nome, String descritor, int delta) {
+		antes();
+		u1(opcode);
+		u2(montador.campo(dono, nome, descritor));
+		empilhe(delta);
+	}
+
+	void invoque(int opcode, String dono, String nome, String descritor, int delta) {
+		antes();
+		u1(opcode);
+		u2(montador.metodo(dono, nome, descritor));
+		empilhe(delta);
+	}
+
+	void tipo(int opcode, String classe, int delta) {
+		antes();
+		u1(opcode);
+		u2(montador.classe(classe));
+		empilhe(delta);
+	}
+
+	void newarray(int tipo) {
+		antes();
+		u1(NEWARRAY);
+		u1(tipo);
+	}
+
+	void desvio(int opcode, Rotulo alvo) {
+		antes();
+		final int origem = tamanho;
+		u1(opcode);
+		if (opcode >= IF_ICMPEQ && opcode <= IF_ICMPLE) {
+			empilhe(-2);
+		} else if (opcode != GOTO) {
+			empilhe(-1);
+		}
+		referencie(alvo, origem, false);
+		if (opcode == GOTO) {
+			desviou = true;
+		}
+	}
+
+	void lookupswitch(Rotulo padrao, int[] chaves, Rotulo[] alvos) {
+		antes();
+		final int origem = tamanho;
+		u1(LOOKUPSWITCH);
+		alinhe();
+		empilhe(-1);
+		referencie(padrao, origem, true);
+		u4(chaves.length);
+		for (int i = 0; i < chaves.length; i++) {
+			u4(chaves[i]);
+			referencie(alvos[i], origem, true);
+		}
+		desviou = true;
+	}
+
+	void tableswitch(int menor, Rotulo padrao, Rotulo[] alvos) {
+		antes();
+		final int origem = tamanho;
+		u1(TABLESWITCH);
+		alinhe();
+		empilhe(-1);
+		referencie(padrao, origem, true);
+		u4(menor);
+		u4(menor + alvos.length - 1);
+		for (Rotulo alvo : alvos) {
+			referencie(alvo, origem, true);
+		}
+		desviou = true;
+	}
+
+	void marque(Rotulo rotulo) {
+		if (desviou && rotulo.pilha >= 0) {
+			pilha = rotulo.pilha;
+		} else if (rotulo.pilha < 0) {
+			rotulo.pilha = pilha;
+		}
+		desviou = false;
+		rotulo.posicao = tamanho;
+		quadros.put(tamanho, pilha);
+		for (int[] p : rotulo.pendentes) {
+			escreva(rotulo, p[0], p[1], p[2] == 1);
+		}
+		rotulo.pendentes.clear();
+	}
+
+	/*
+	 * Coloca o prólogo antes deste código. O prólogo é completado com NOPs
+	 * até um múltiplo de 4 para preservar o alinhamento dos switches.
+	 */
+	void prefixe(Codigo prologo) {
+		while (prologo.tamanho == 0 || prologo.tamanho % 4 != 0) {
+			prologo.u1(NOP);
+		}
+		final int deslocamento = prologo.tamanho;
+		final byte[] novo = Arrays.copyOf(prologo.bytes, deslocamento + tamanho);
+		System.arraycopy(bytes, 0, novo, deslocamento, tamanho);
+		bytes = novo;
+		tamanho += deslocamento;
+		final Map<Integer, Integer> antigos = new TreeMap<>(quadros);
+		quadros.clear();
+		antigos.forEach((posicao, altura) -> quadros.put(posicao + deslocamento, altura));
+		for (int[] t : tratadores) {
+			for (int i = 0; i < t.length; i++) {
+				t[i] += deslocamento;
+			}
+		}
+		maxPilha = Math.max(maxPilha, prologo.maxPilha);
+	}
+
+	void escreva(DataOutputStream out) throws IOException {
+		if (tamanho > LIMITE) {
+			throw new IllegalArgumentException("Programa grande demais para um método.");
+		}
+		// Parâmetros int não têm classe (0)
+		final int[] tipos = new int[parametros.length];
+		int tamanhoTipos = 0;
+		for (int i = 0; i < parametros.length; i++) {
+			tipos[i] = parametros[i].equals("I") ? 0 : montador.classe(parametros[i]);
+			tamanhoTipos += tipos[i] == 0 ? 1 : 3;
+		}
+		final int nomeQuadros = quadros.isEmpty() ? 0 : montador.utf8("StackMapTable");
+		final int excecao = tratadores.isEmpty() ? 0 : montador.classe("java/lang/Throwable");
+		int tamanhoQuadros = 2;
+		for (int altura : quadros.values()) {
+			tamanhoQuadros += 7 + tamanhoTipos + locais + (altura == EXCECAO ? 3 : altura);
+		}
+
+		out.writeShort(montador.utf8("Code"));
+		out.writeInt(12 + tamanho + 8 * tratadores.size() + (quadros.isEmpty() ? 0 : 6 + tamanhoQuadros));
+		out.writeShort(maxPilha);
+		out.writeShort(parametros.length + locais);
+		out.writeInt(tamanho);
+		out.write(bytes, 0, tamanho);
+		out.writeShort(tratadores.size());
+		for (int[] t : tratadores) {
+			out.writeShort(t[0]);
+			out.writeShort(t[1]);
+			out.writeShort(t[2]);
+			// Qualquer exceção
+			out.writeShort(0);
+		}
+		if (quadros.isEmpty()) {
+			out.writeShort(0);
+			return;
+		}
+		out.writeShort(1);
+		out.writeShort(nomeQuadros);
+		out.writeInt(tamanhoQuadros);
+		out.writeShort(quadros.size());
+		int anterior = -1;
+		for (Map.Entry<Integer, Integer> q : quadros.entrySet()) {
+			out.writeByte(255);
+			out.writeShort(q.getKey() - anterior - 1);
+			anterior = q.getKey();
+			out.writeShort(parametros.length + locais);
+			for (int tipo : tipos) {
+				if (tipo == 0) {
+					out.writeByte(1);
+				} else {
+					out.writeByte(7);
+					out.writeShort(tipo);
+				}
+			}
+			for (int i = 0; i < locais; i++) {
+				out.writeByte(1);
+			}
+			if (q.getValue() == EXCECAO) {
+				out.writeShort(1);
+				out.writeByte(7);
+				out.writeShort(excecao);
+				continue;
+			}
+			out.writeShort(q.getValue());
+			for (int i = 0; i < q.getValue(); i++) {
+				out.writeByte(1);
+			}
+		}
+	}
+
+	// Código que segue um desvio incondicional precisa de um quadro próprio
+	private void antes() {
+		if (desviou) {
+			quadros.putIfAbsent(tamanho, pilha);
+			desviou = false;
+		}
+	}
+
+	private void local(int opcode, int local) {
+		antes();
+		if (local > 0xFF) {
+			u1(WIDE);
+			u1(opcode);
+			u2(local);
+		} else {
+			u1(opcode);
+			u1(local);
+		}
+	}
+
+	private void constante(int indice) {
+		if (indice > 0xFF) {
+			u1(LDC_W);
+			u2(indice);
+		} else {
+			u1(LDC);
+			u1(indice);
+		}
+	}
+
+	private void referencie(Rotulo alvo, int origem, boolean largo) {
+		if (alvo.pilha < 0) {
+			alvo.pilha = pilha;
+		}
+		final int lugar = tamanho;
+		if (largo) {
+			u4(0);
+		} else {
+			u2(0);
+		}
+		if (alvo.posicao >= 0) {
+			escreva(alvo, origem, lugar, largo);
+		} else {
+			alvo.pendentes.add(new int[] { origem, lugar, largo ? 1 : 0 });
+		}
+	}
+
+	private void escreva(Rotulo alvo, int origem, int lugar, boolean largo) {
+		final int deslocamento = alvo.posicao - origem;
+		if (largo) {
+			bytes[lugar] = (byte) (deslocamento >>> 24);
+			bytes[lugar + 1] = (byte) (deslocamento >>> 16);
+			bytes[lugar + 2] = (byte) (deslocamento >>> 8);
+			bytes[lugar + 3] = (byte) deslocamento;
+		} else {
+			if (deslocamento < Short.MIN_VALUE || deslocamento > Short.MAX_VALUE) {
+				throw new IllegalArgumentException("Programa grande demais para um método.");
+			}
+			bytes[lugar] = (byte) (deslocamento >>> 8);
+			bytes[lugar + 1] = (byte) deslocamento;
+		}
+	}
+
+	private void alinhe() {
+		while (tamanho % 4 != 0) {
+			u1(0);
+		}
+	}
+
+	private void empilhe(int delta) {
+		pilha += delta;
+		maxPilha = Math.max(maxPilha, pilha);
+	}
+
+	private void u1(int valor) {
+		if (tamanho == bytes.length) {
+			bytes = Arrays.copyOf(bytes, bytes.length * 2);
+		}
+		bytes[tamanho++] = (byte) valor;
+	}
+
+	private void u2(int valor) {
+		u1(valor >>> 8);
+		u1(valor);
+	}
+
+	private void u4(int valor) {
+		u2(valor >>> 16);
+		u2(valor);
+	}
+}
@@ -0,0 +1,504 @@
+package plp.enquanto.jvm;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import plp.enquanto.Linguagem.*;
+
+import static plp.enquanto.Linguagem.memoria;
+import static plp.enquanto.jvm.Codigo.*;
+
+/*
+ * Traduz comandos da linguagem para bytecode de um método estático
+ * executa(int[]) em uma classe oculta. As variáveis viram variáveis locais
+ * da JVM: são lidas da memória no início do método e devolvidas ao final,
+ * também quando uma exceção interrompe o código.
+ * O mesmo código também é gravado em uma classe independente, com main,
+ * pelo compilador whilec.
+ */
+public final class Compilador {
+	private static final String NOME = "plp/enquanto/jvm/Compilado";
+	private static final String DESCRITOR = "([I)V";
+	private static final String SAIDA = "java/io/PrintStream";
+	private static final String SCANNER = "Ljava/util/Scanner;";
+
+	private final Codigo codigo;
+	// Classes do campo scanner e do método potencia chamados pelo código
+	private final String leitor;
+	private final String potencia;
+	private final Map<Integer, Integer> locais = new HashMap<>();
+	private final List<Integer> atribuidas = new ArrayList<>();
+	private boolean leu;
+	private boolean elevou;
+
+	private Compilador(Codigo codigo, String leitor, String potencia) {
+		this.codigo = codigo;
+		this.leitor = leitor;
+		this.potencia = potencia;
+	}
+
+	/*
+	 * Compila o programa inteiro. Lança IllegalArgumentException se ele
+	 * ultrapassar os limites de tamanho de um método da JVM.
+	 */
+	public static Comando compile(Programa programa) {
+		final MethodHandle executa = defina(gere(programa.getComandos()));
+		final int variaveis = programa.getVariaveis();
+		return () -> {
+			memoria.aloque(variaveis);
+			execute(executa);
+		};
+	}
+
+	static byte[] gere(List<Comando> comandos) {
+		final Montador montador = new Montador(NOME);
+		final Codigo corpo = new Codigo(montador, "[I");
+		final Compilador compilador = new Compilador(corpo, "plp/enquanto/Linguagem", "plp/enquanto/Linguagem$ExpPow");
+		comandos.forEach(compilador::gere);
+		compilador.conclua(montador, true);
+		montador.adicioneMetodo(Montador.PUBLICO | Montador.ESTATICO, "executa", DESCRITOR, corpo);
+		return montador.bytes();
+	}
+
+	/*
+	 * Classe nome (interno, com /) com main(String[]) que executa o programa
+	 * sobre uma memória zerada. O scanner e a potência ficam na própria
+	 * classe, que só depende da biblioteca padrão.
+	 */
+	public static byte[] executavel(String nome, Programa programa) {
+		final Montador montador = new Montador(nome);
+		final Codigo corpo = new Codigo(montador, "[I");
+		final Compilador compilador = new Compilador(corpo, nome, nome);
+		programa.getComandos().forEach(compilador::gere);
+		// A memória some com o programa: nada a devolver em exceções
+		compilador.conclua(montador, false);
+		montador.adicioneMetodo(Montador.PRIVADO | Montador.ESTATICO, "executa", DESCRITOR, corpo);
+
+		final Codigo main = new Codigo(montador, "[Ljava/lang/String;");
+		if (compilador.leu) {
+			// Só cria o Scanner (e carrega suas expressões regulares) se o programa lê
+			montador.adicioneCampo(Montador.PRIVADO | Montador.ESTATICO, "scanner", SCANNER);
+			main.tipo(NEW, "java/util/Scanner", 1);
+			main.op(DUP, 1);
+			main.campo(GETSTATIC, "java/lang/System", "in", "Ljava/io/InputStream;", 1);
+			main.invoque(INVOKESPECIAL, "java/util/Scanner", "<init>", "(Ljava/io/InputStream;)V", -2);
+			main.campo(PUTSTATIC, nome, "scanner", SCANNER, -1);
+		}
+		main.iconst(programa.getVariaveis());
+		main.newarray(T_INT);
+		main.invoque(INVOKESTATIC, nome, "executa", DESCRITOR, -1);
+		main.op(RETURN, 0);
+		montador.adicioneMetodo(Montador.PUBLICO | Montador.ESTATICO, "main", "([Ljava/lang/String;)V", main);
+		if (compilador.elevou) {
+			montador.adicioneMetodo(Montador.PRIVADO | Montador.ESTATICO, "potencia", "(II)I", potencia(montador));
+		}
+		return montador.bytes();
+	}
+
+	// Linguagem.ExpPow.potencia(int, int) em bytecode
+	private static Codigo potencia(Montador montador) {
+		final Codigo codigo = new Codigo(montador, "I", "I");
+		final int resultado = codigo.novaLocal();
+		final Rotulo positivo = new Rotulo();
+		final Rotulo unitaria = new Rotulo();
+		final Rotulo impar = new Rotulo();
+		final Rotulo zero = new Rotulo();
+		final Rotulo teste = new Rotulo();
+		final Rotulo par = new Rotulo();
+		final Rotulo fim = new Rotulo();
+		codigo.iconst(1);
+		codigo.istore(resultado);
+		codigo.iload(1);
+		codigo.desvio(IFGE, positivo);
+		// Expoente negativo: Integer.MAX_VALUE com base 0, ±1 para bases ±1 e 0 para as demais
+		final Rotulo naoZero = new Rotulo();
+		codigo.iload(0);
+		codigo.desvio(IFNE, naoZero);
+		codigo.iconst(Integer.MAX_VALUE);
+		codigo.op(IRETURN, -1);
+		codigo.marque(naoZero);
+		codigo.iload(0);
+		codigo.iconst(1);
+		codigo.desvio(IF_ICMPEQ, unitaria);
+		codigo.iload(0);
+		codigo.iconst(-1);
+		codigo.desvio(IF_ICMPNE, zero);
+		codigo.marque(unitaria);
+		codigo.iload(1);
+		codigo.iconst(1);
+		codigo.op(IAND, -1);
+		codigo.desvio(IFNE, impar);
+		codigo.iconst(1);
+		codigo.op(IRETURN, -1);
+		codigo.marque(impar);
+		codigo.iload(0);
+		codigo.op(IRETURN, -1);
+		codigo.marque(zero);
+		codigo.iconst(0);
+		codigo.op(IRETURN, -1);
+		// Quadrados sucessivos
+		codigo.marque(positivo);
+		codigo.marque(teste);
+		codigo.iload(1);
+		codigo.desvio(IFEQ, fim);
+		codigo.iload(1);
+		codigo.iconst(1);
+		codigo.op(IAND, -1);
+		codigo.desvio(IFEQ, par);
+		codigo.iload(resultado);
+		codigo.iload(0);
+		codigo.op(IMUL, -1);
+		codigo.istore(resultado);
+		codigo.marque(par);
+		codigo.iload(0);
+		codigo.iload(0);
+		codigo.op(IMUL, -1);
+		codigo.istore(0);
+		codigo.iload(1);
+		codigo.iconst(1);
+		codigo.op(IUSHR, -1);
+		codigo.istore(1);
+		codigo.desvio(GOTO, teste);
+		codigo.marque(fim);
+		codigo.iload(resultado);
+		codigo.op(IRETURN, -1);
+		return codigo;
+	}
+
+	static MethodHandle defina(byte[] classe) {
+		try {
+			final MethodHandles.Lookup definida = MethodHandles.lookup().defineHiddenClass(classe, true);
+			return definida.findStatic(definida.lookupClass(), "executa",
+					MethodType.methodType(void.class, int[].class));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static void execute(MethodHandle executa) {
+		try {
+			executa.invokeExact(memoria.getValores());
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new IllegalStateException(t);
+		}
+	}
+
+	/*
+	 * Prólogo carrega as variáveis da memória; epílogo devolve as atribuídas,
+	 * e o tratador (se pedido) as devolve antes de relançar uma exceção
+	 */
+	private void conclua(Montador montador, boolean trate) {
+		final int fim = codigo.getPosicao();
+		devolva();
+		codigo.op(RETURN, 0);
+		if (trate && fim > 0 && !atribuidas.isEmpty()) {
+			codigo.trate(0, fim);
+			devolva();
+			codigo.op(ATHROW, -1);
+		}
+
+		final Codigo prologo = new Codigo(montador, "[I");
+		final int[] variavel = new int[codigo.getLocais() + 1];
+		Arrays.fill(variavel, -1);
+		locais.forEach((slot, local) -> variavel[local] = slot);
+		for (int local = 1; local < variavel.length; local++) {
+			if (variavel[local] >= 0) {
+				prologo.aload(0);
+				prologo.iconst(variavel[local]);
+				prologo.op(IALOAD, -1);
+			} else {
+				prologo.iconst(0);
+			}
+			prologo.istore(local);
+		}
+		codigo.prefixe(prologo);
+	}
+
+	private void devolva() {
+		for (int slot : atribuidas) {
+			codigo.aload(0);
+			codigo.iconst(slot);
+			codigo.iload(locais.get(slot));
+			codigo.op(IASTORE, -3);
+		}
+	}
+
+	private int local(int slot) {
+		return locais.computeIfAbsent(slot, s -> codigo.novaLocal());
+	}
+
+	private void atribua(int slot) {
+		final int local = local(slot);
+		if (!atribuidas.contains(slot)) {
+			atribuidas.add(slot);
+		}
+		codigo.istore(local);
+	}
+
+	private static boolean repetido(int[] slots, int i, int n) {
+		for (int j = i + 1; j < n; j++) {
+			if (slots[j] == slots[i]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * Comandos
+	 */
+	private void gere(Comando comando) {
+		if (comando instanceof Atribuicao a) {
+			final int[] slots = a.getSlots();
+			final int n = a.getExps().size();
+			a.getExps().forEach(this::gere);
+			for (int i = n - 1; i >= slots.length; i--) {
+				codigo.op(POP, -1);
+			}
+			// Os valores saem da pilha do último ao primeiro: alvo repetido fica com o último
+			for (int i = Math.min(n, slots.length) - 1; i >= 0; i--) {
+				if (repetido(slots, i, Math.min(n, slots.length))) {
+					codigo.op(POP, -1);
+				} else {
+					atribua(slots[i]);
+				}
+			}
+			if (n < slots.length) {
+				// Atribuição incompleta (recuperada pelo parser) falha como em Atribuicao.execute()
+				lance("java/lang/IndexOutOfBoundsException", "Index " + n + " out of bounds for length " + n);
+			}
+		} else if (comando instanceof Bloco b) {
+			b.getComandos().forEach(this::gere);
+		} else if (comando instanceof Se se) {
+			final Rotulo fim = new Rotulo();
+			for (int i = 0; i < se.getCondicoes().size(); i++) {
+				final Rotulo proximo = new Rotulo();
+				desvieSeFalso(se.getCondicoes().get(i), proximo);
+				gere(se.getRamos().get(i));
+				codigo.desvio(GOTO, fim);
+				codigo.marque(proximo);
+			}
+			if (se.getSenao() != null) {
+				gere(se.getSenao());
+			}
+			codigo.marque(fim);
+		} else if (comando instanceof Enquanto e) {
+			final Rotulo teste = new Rotulo();
+			final Rotulo fim = new Rotulo();
+			codigo.marque(teste);
+			desvieSeFalso(e.getCondicao(), fim);
+			gere(e.getComando());
+			codigo.desvio(GOTO, teste);
+			codigo.marque(fim);
+		} else if (comando instanceof Repita r) {
+			final int vezes = codigo.novaLocal();
+			final int contador = codigo.novaLocal();
+			final Rotulo teste = new Rotulo();
+			final Rotulo fim = new Rotulo();
+			gere(r.getVezes());
+			codigo.istore(vezes);
+			codigo.iconst(0);
+			codigo.istore(contador);
+			codigo.marque(teste);
+			codigo.iload(contador);
+			codigo.iload(vezes);
+			codigo.desvio(IF_ICMPGE, fim);
+			gere(r.getCorpo());
+			codigo.iinc(contador, 1);
+			codigo.desvio(GOTO, teste);
+			codigo.marque(fim);
+		} else if (comando instanceof Para p) {
+			// O contador é separado da variável, como em Para.execute()
+			final int contador = codigo.novaLocal();
+			final Rotulo teste = new Rotulo();
+			final Rotulo fim = new Rotulo();
+			gere(p.getInicio());
+			codigo.istore(contador);
+			codigo.marque(teste);
+			codigo.iload(contador);
+			gere(p.getFim());
+			codigo.desvio(IF_ICMPGT, fim);
+			codigo.iload(contador);
+			atribua(p.getSlot());
+			gere(p.getCorpo());
+			codigo.iinc(contador, 1);
+			codigo.desvio(GOTO, teste);
+			codigo.marque(fim);
+		} else if (comando instanceof Escolha e) {
+			final int[] chaves = e.getChaves();
+			final Rotulo[] casos = new Rotulo[chaves.length];
+			final Rotulo outro = new Rotulo();
+			final Rotulo fim = new Rotulo();
+			Arrays.setAll(casos, i -> new Rotulo());
+			gere(e.getSeletor());
+			if (e instanceof EscolhaDensa d) {
+				// Valores sem caso no intervalo desviam para outro
+				final Rotulo[] tabela = new Rotulo[d.getTabela().length];
+				Arrays.fill(tabela, outro);
+				for (int i = 0; i < chaves.length; i++) {
+					tabela[chaves[i] - d.getMenor()] = casos[i];
+				}
+				codigo.tableswitch(d.getMenor(), outro, tabela);
+			} else {
+				codigo.lookupswitch(outro, chaves, casos);
+			}
+			for (int i = 0; i < chaves.length; i++) {
+				codigo.marque(casos[i]);
+				gere(e.getCasos()[i]);
+				codigo.desvio(GOTO, fim);
+			}
+			codigo.marque(outro);
+			if (e.getOutro() != null) {
+				gere(e.getOutro());
+			}
+			codigo.marque(fim);
+		} else if (comando instanceof Exiba e) {
+			codigo.campo(GETSTATIC, "java/lang/System", "out", "L" + SAIDA + ";", 1);
+			codigo.ldc(e.getTexto());
+			codigo.invoque(INVOKEVIRTUAL, SAIDA, "println", "(Ljava/lang/String;)V", -2);
+		} else if (comando instanceof ExibaExp e) {
+			escreva(e.getExp());
+		} else if (comando instanceof Escreva e) {
+			escreva(e.getExp());
+		} else if (!(comando instanceof Skip)) {
+			throw new IllegalArgumentException("Comando não suportado: " + comando.getClass().getSimpleName());
+		}
+	}
+
+	private void lance(String excecao, String mensagem) {
+		codigo.tipo(NEW, excecao, 1);
+		codigo.op(DUP, 1);
+		codigo.ldc(mensagem);
+		codigo.invoque(INVOKESPECIAL, excecao, "<init>", "(Ljava/lang/String;)V", -2);
+		codigo.op(ATHROW, -1);
+	}
+
+	private void escreva(Expressao exp) {
+		codigo.campo(GETSTATIC, "java/lang/System", "out", "L" + SAIDA + ";", 1);
+		gere(exp);
+		codigo.invoque(INVOKEVIRTUAL, SAIDA, "println", "(I)V", -2);
+	}
+
+	/*
+	 * Expressoes
+	 */
+	private void gere(Expressao exp) {
+		if (exp instanceof Inteiro i) {
+			codigo.iconst(i.getValor());
+		} else if (exp instanceof Id id) {
+			codigo.iload(local(id.getSlot()));
+		} else if (exp instanceof Leia) {
+			leu = true;
+			codigo.campo(GETSTATIC, leitor, "scanner", SCANNER, 1);
+			codigo.invoque(INVOKEVIRTUAL, "java/util/Scanner", "nextInt", "()I", 0);
+		} else if (exp instanceof ExpSoma op) {
+			binaria(op, IADD);
+		} else if (exp instanceof ExpSub op) {
+			binaria(op, ISUB);
+		} else if (exp instanceof ExpMult op) {
+			binaria(op, IMUL);
+		} else if (exp instanceof ExpDiv op) {
+			binaria(op, IDIV);
+		} else if (exp instanceof ExpPow op) {
+			gere(op.getEsq());
+			gere(op.getDir());
+			elevou = true;
+			codigo.invoque(INVOKESTATIC, potencia, "potencia", "(II)I", -1);
+		} else {
+			throw new IllegalArgumentException("Expressão não suportada: " + exp.getClass().getSimpleName());
+		}
+	}
+
+	private void binaria(OpBin<Expressao> op, int opcode) {
+		gere(op.getEsq());
+		gere(op.getDir());
+		codigo.op(opcode, -1);
+	}
+
+	/*
+	 * Condições viram desvios, sem materializar valores booleanos
+	 */
+	private void desvieSeFalso(Bool b, Rotulo alvo) {
+		desvie(b, false, alvo);
+	}
+
+	private void desvie(Bool b, boolean quando, Rotulo alvo) {
+		if (b instanceof Booleano v) {
+			if (v.getValor() == quando) {
+				codigo.desvio(GOTO, alvo);
+			}
+		} else if (b instanceof NaoLogico n) {
+			desvie(n.getOperando(), !quando, alvo);
+		} else if (b instanceof ELogico e) {
+			if (quando) {
+				final Rotulo fim = new Rotulo();
+				desvie(e.getEsq(), false, fim);
+				desvie(e.getDir(), true, alvo);
+				codigo.marque(fim);
+			} else {
+				desvie(e.getEsq(), false, alvo);
+				desvie(e.getDir(), false, alvo);
+			}
+		} else if (b instanceof OuLogico o) {
+			if (quando) {
+				desvie(o.getEsq(), true, alvo);
+				desvie(o.getDir(), true, alvo);
+			} else {
+				final Rotulo fim = new Rotulo();
+				desvie(o.getEsq(), true, fim);
+				desvie(o.getDir(), false, alvo);
+				codigo.marque(fim);
+			}
+		} else if (b instanceof XorLogico x) {
+			valor(x.getEsq());
+			valor(x.getDir());
+			codigo.op(IXOR, -1);
+			codigo.desvio(quando ? IFNE : IFEQ, alvo);
+		} else if (b instanceof OpBin<?> op) {
+			@SuppressWarnings("unchecked")
+			final OpBin<Expressao> rel = (OpBin<Expressao>) op;
+			gere(rel.getEsq());
+			gere(rel.getDir());
+			codigo.desvio(comparacao(b, quando), alvo);
+		} else {
+			throw new IllegalArgumentException("Condição não suportada: " + b.getClass().getSimpleName());
+		}
+	}
+
+	private static int comparacao(Bool b, boolean quando) {
+		if (b instanceof ExpIgual) {
+			return quando ? IF_ICMPEQ : IF_ICMPNE;
+		} else if (b instanceof ExpDiferente) {
+			return quando ? IF_ICMPNE : IF_ICMPEQ;
+		} else if (b instanceof ExpMenor) {
+			return quando ? IF_ICMPLT : IF_ICMPGE;
+		} else if (b instanceof ExpMenorIgual) {
+			return quando ? IF_ICMPLE : IF_ICMPGT;
+		} else if (b instanceof ExpMaior) {
+			return quando ? IF_ICMPGT : IF_ICMPLE;
+		} else if (b instanceof ExpMaiorIgual) {
+			return quando ? IF_ICMPGE : IF_ICMPLT;
+		}
+		throw new IllegalArgumentException("Condição não suportada: " + b.getClass().getSimpleName());
+	}
+
+	// Materializa a condição como 0 ou 1 na pilha
+	private void valor(Bool b) {
+		final Rotulo falso = new Rotulo(codigo.getPilha());
+		final Rotulo fim = new Rotulo();
+		desvie(b, false, falso);
+		codigo.iconst(1);
+		codigo.desvio(GOTO, fim);
+		codigo.marque(falso);
+		codigo.iconst(0);
+		codigo.marque(fim);
+	}
+}
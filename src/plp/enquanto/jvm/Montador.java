@@ -0,0 +1,172 @@
+package plp.enquanto.jvm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Montador mínimo de arquivos .class: uma classe final, sem campos de
+ * instância, com métodos estáticos gerados por Codigo.
+ */
+final class Montador {
+	static final int PUBLICO = 0x0001;
+	static final int PRIVADO = 0x0002;
+	static final int ESTATICO = 0x0008;
+	static final int FINAL = 0x0010;
+	static final int SUPER = 0x0020;
+
+	private final String nome;
+	private final ByteArrayOutputStream constantes = new ByteArrayOutputStream();
+	private final DataOutputStream pool = new DataOutputStream(constantes);
+	private final Map<String, Integer> indices = new HashMap<>();
+	private final List<byte[]> campos = new ArrayList<>();
+	private final List<byte[]> metodos = new ArrayList<>();
+	private int proximo = 1;
+
+	Montador(String nome) {
+		this.nome = nome;
+	}
+
+	String getNome() {
+		return nome;
+	}
+
+	int utf8(String valor) {
+		return constante("U" + valor, out -> {
+			out.writeByte(1);
+			out.writeUTF(valor);
+		});
+	}
+
+	int classe(String nome) {
+		final int n = utf8(nome);
+		return constante("C" + nome, out -> {
+			out.writeByte(7);
+			out.writeShort(n);
+		});
+	}
+
+	int texto(String valor) {
+		final int v = utf8(valor);
+		return constante("S" + valor, out -> {
+			out.writeByte(8);
+			out.writeShort(v);
+		});
+	}
+
+	int inteiro(int valor) {
+		return constante("I" + valor, out -> {
+			out.writeByte(3);
+			out.writeInt(valor);
+		});
+	}
+
+	int campo(String dono, String nome, String descritor) {
+		return referencia(9, dono, nome, descritor);
+	}
+
+	int metodo(String dono, String nome, String descritor) {
+		return referencia(10, dono, nome, descritor);
+	}
+
+	void adicioneCampo(int acesso, String nome, String descritor) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeShort(acesso);
+			out.writeShort(utf8(nome));
+			out.writeShort(utf8(descritor));
+			out.writeShort(0);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		campos.add(bytes.toByteArray());
+	}
+
+	void adicioneMetodo(int acesso, String nome, String descritor, Codigo codigo) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeShort(acesso);
+			out.writeShort(utf8(nome));
+			out.writeShort(utf8(descritor));
+			out.writeShort(1);
+			codigo.escreva(out);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		metodos.add(bytes.toByteArray());
+	}
+
+	byte[] bytes() {
+		final int este = classe(nome);
+		final int pai = classe("java/lang/Object");
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(52);
+			out.writeShort(proximo);
+			constantes.writeTo(out);
+			out.writeShort(PUBLICO | FINAL | SUPER);
+			out.writeShort(este);
+			out.writeShort(pai);
+			out.writeShort(0);
+			out.writeShort(campos.size());
+			for (byte[] c : campos) {
+				out.write(c);
+			}
+			out.writeShort(metodos.size());
+			for (byte[] m : metodos) {
+				out.write(m);
+			}
+			out.writeShort(0);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private int referencia(int tag, String dono, String nome, String descritor) {
+		final int c = classe(dono);
+		final int n = utf8(nome);
+		final int d = utf8(descritor);
+		final int nt = constante("N" + nome + ":" + descritor, out -> {
+			out.writeByte(12);
+			out.writeShort(n);
+			out.writeShort(d);
+		});
+		return constante(tag + dono + "." + nome + ":" + descritor, out -> {
+			out.writeByte(tag);
+			out.writeShort(c);
+			out.writeShort(nt);
+		});
+	}
+
+	private interface Entrada {
+		void escreva(DataOutputStream out) throws IOException;
+	}
+
+	private int constante(String chave, Entrada entrada) {
+		final Integer indice = indices.get(chave);
+		if (indice != null) {
+			return indice;
+		}
+		try {
+			entrada.escreva(pool);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		final int novo = proximo++;
+		if (novo > 0xFFFF) {
+			throw new IllegalArgumentException("Programa grande demais para uma classe.");
+		}
+		indices.put(chave, novo);
+		return novo;
+	}
+}
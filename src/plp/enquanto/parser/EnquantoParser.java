@@ -115,12 +115,9 @@ public class EnquantoParser extends Parser {
 		}
 		@Override public int getRuleIndex() { return RULE_programa; }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterPrograma(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitPrograma(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitPrograma(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 
@@ -158,12 +155,9 @@ public class EnquantoParser extends Parser {
 		}
 		@Override public int getRuleIndex() { return RULE_seqComando; }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterSeqComando(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitSeqComando(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitSeqComando(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 
@@ -227,12 +221,9 @@ public class EnquantoParser extends Parser {
 		}
 		public AtribuicaoContext(ComandoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterAtribuicao(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitAtribuicao(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitAtribuicao(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -251,12 +242,9 @@ public class EnquantoParser extends Parser {
 		}
 		public SeContext(ComandoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterSe(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitSe(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitSe(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -276,12 +264,9 @@ public class EnquantoParser extends Parser {
 		}
 		public EscolhaContext(ComandoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterEscolha(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitEscolha(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitEscolha(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -294,12 +279,9 @@ public class EnquantoParser extends Parser {
 		}
 		public EnquantoContext(ComandoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterEnquanto(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitEnquanto(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitEnquanto(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -316,12 +298,9 @@ public class EnquantoParser extends Parser {
 		}
 		public ParaContext(ComandoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterPara(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitPara(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitPara(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -334,12 +313,9 @@ public class EnquantoParser extends Parser {
 		}
 		public RepitaContext(ComandoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterRepita(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitRepita(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitRepita(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -349,12 +325,9 @@ public class EnquantoParser extends Parser {
 		}
 		public BlocoContext(ComandoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterBloco(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitBloco(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitBloco(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -364,12 +337,9 @@ public class EnquantoParser extends Parser {
 		}
 		public EscrevaContext(ComandoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterEscreva(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitEscreva(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitEscreva(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -379,24 +349,18 @@ public class EnquantoParser extends Parser {
 		}
 		public ExibaExpContext(ComandoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterExibaExp(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitExibaExp(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitExibaExp(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
 	public static class SkipContext extends ComandoContext {
 		public SkipContext(ComandoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterSkip(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitSkip(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitSkip(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -404,12 +368,9 @@ public class EnquantoParser extends Parser {
 		public TerminalNode TEXTO() { return getToken(EnquantoParser.TEXTO, 0); }
 		public ExibaTextoContext(ComandoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterExibaTexto(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitExibaTexto(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitExibaTexto(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 
@@ -703,12 +664,9 @@ public class EnquantoParser extends Parser {
 	public static class LeiaContext extends ExpressaoContext {
 		public LeiaContext(ExpressaoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterLeia(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitLeia(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitLeia(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -716,12 +674,9 @@ public class EnquantoParser extends Parser {
 		public TerminalNode INT() { return getToken(EnquantoParser.INT, 0); }
 		public InteiroContext(ExpressaoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterInteiro(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitInteiro(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitInteiro(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -734,12 +689,9 @@ public class EnquantoParser extends Parser {
 		}
 		public OpBinContext(ExpressaoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterOpBin(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitOpBin(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitOpBin(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -747,12 +699,9 @@ public class EnquantoParser extends Parser {
 		public TerminalNode ID() { return getToken(EnquantoParser.ID, 0); }
 		public IdContext(ExpressaoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterId(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitId(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitId(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -762,12 +711,9 @@ public class EnquantoParser extends Parser {
 		}
 		public ExpParContext(ExpressaoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterExpPar(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitExpPar(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitExpPar(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 
@@ -935,12 +881,9 @@ public class EnquantoParser extends Parser {
 		public TerminalNode BOOLEANO() { return getToken(EnquantoParser.BOOLEANO, 0); }
 		public BoolContext(BooleanoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterBool(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitBool(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitBool(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -953,12 +896,9 @@ public class EnquantoParser extends Parser {
 		}
 		public ELogicoContext(BooleanoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterELogico(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitELogico(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitELogico(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -971,12 +911,9 @@ public class EnquantoParser extends Parser {
 		}
 		public XorLogicoContext(BooleanoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterXorLogico(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitXorLogico(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitXorLogico(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -986,12 +923,9 @@ public class EnquantoParser extends Parser {
 		}
 		public NaoLogicoContext(BooleanoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterNaoLogico(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitNaoLogico(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitNaoLogico(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -1004,12 +938,9 @@ public class EnquantoParser extends Parser {
 		}
 		public OpRelContext(BooleanoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterOpRel(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitOpRel(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitOpRel(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -1019,12 +950,9 @@ public class EnquantoParser extends Parser {
 		}
 		public BoolParContext(BooleanoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterBoolPar(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitBoolPar(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitBoolPar(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 	@SuppressWarnings("CheckReturnValue")
@@ -1037,12 +965,9 @@ public class EnquantoParser extends Parser {
 		}
 		public OuLogicoContext(BooleanoContext ctx) { copyFrom(ctx); }
 		@Override
-		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).enterOuLogico(this);
-		}
-		@Override
-		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof EnquantoListener ) ((EnquantoListener)listener).exitOuLogico(this);
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof EnquantoVisitor ) return ((EnquantoVisitor<? extends T>)visitor).visitOuLogico(this);
+			else return visitor.visitChildren(this);
 		}
 	}
 
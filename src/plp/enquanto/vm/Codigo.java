@@ -0,0 +1,44 @@
+package plp.enquanto.vm;
+
+/*
+ * Programa traduzido para a máquina: o fluxo de instruções, a tabela de
+ * textos usados por EXIBA e o número de registradores. Os primeiros
+ * registradores são as variáveis do programa (pelo slot); os demais são
+ * temporários.
+ */
+public final class Codigo {
+	private final int[] instrucoes;
+	private final String[] textos;
+	private final int registradores;
+
+	public Codigo(int[] instrucoes, String[] textos, int registradores) {
+		this.instrucoes = instrucoes;
+		this.textos = textos;
+		this.registradores = registradores;
+	}
+
+	public int[] getInstrucoes() {
+		return instrucoes;
+	}
+
+	public String[] getTextos() {
+		return textos;
+	}
+
+	public int getRegistradores() {
+		return registradores;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (int pc = 0; pc < instrucoes.length; pc += 1 + Instrucao.operandos(instrucoes, pc)) {
+			sb.append(pc).append(": ").append(Instrucao.nome(instrucoes[pc]));
+			for (int i = 1; i <= Instrucao.operandos(instrucoes, pc); i++) {
+				sb.append(' ').append(instrucoes[pc + i]);
+			}
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,55 @@
+package plp.enquanto.vm;
+
+/*
+ * Códigos de operação da máquina. Cada instrução ocupa o opcode seguido
+ * dos operandos no mesmo int[]: registradores (r), constantes (k),
+ * índices de texto (t) e endereços de desvio (pc).
+ */
+public final class Instrucao {
+	public static final int FIM = 0;       // FIM
+	public static final int CONST = 1;     // CONST r k         r := k
+	public static final int MOV = 2;       // MOV r a           r := a
+	public static final int SOMA = 3;      // SOMA r a b        r := a + b
+	public static final int SUB = 4;       // SUB r a b         r := a - b
+	public static final int MULT = 5;      // MULT r a b        r := a * b
+	public static final int DIV = 6;       // DIV r a b         r := a / b
+	public static final int POT = 7;       // POT r a b         r := a ^ b
+	public static final int SOMAK = 8;     // SOMAK r a k       r := a + k
+	public static final int LEIA = 9;      // LEIA r
+	public static final int ESCREVA = 10;  // ESCREVA a
+	public static final int EXIBA = 11;    // EXIBA t
+	public static final int SALTO = 12;    // SALTO pc
+	public static final int SEIGUAL = 13;  // SEIGUAL a b pc    desvia se a = b
+	public static final int SEDIF = 14;    // SEDIF a b pc      desvia se a <> b
+	public static final int SEMENOR = 15;  // SEMENOR a b pc    desvia se a < b
+	public static final int SEMENORIG = 16; // SEMENORIG a b pc desvia se a <= b
+	public static final int SEMAIOR = 17;  // SEMAIOR a b pc    desvia se a > b
+	public static final int SEMAIORIG = 18; // SEMAIORIG a b pc desvia se a >= b
+	public static final int ESCOLHA = 19;  // ESCOLHA a n pc (k pc)*n  chaves em ordem crescente
+	public static final int FALHA = 20;    // FALHA t           IndexOutOfBoundsException(t)
+	public static final int TABELA = 21;   // TABELA a k n pc pc*n  desvia para o (a - k)-ésimo se 0 <= a - k < n
+
+	private static final String[] NOMES = { "FIM", "CONST", "MOV", "SOMA", "SUB", "MULT", "DIV", "POT", "SOMAK",
+			"LEIA", "ESCREVA", "EXIBA", "SALTO", "SEIGUAL", "SEDIF", "SEMENOR", "SEMENORIG", "SEMAIOR",
+			"SEMAIORIG", "ESCOLHA", "FALHA", "TABELA" };
+
+	private Instrucao() {
+	}
+
+	public static String nome(int opcode) {
+		return NOMES[opcode];
+	}
+
+	// Número de operandos que seguem o opcode
+	public static int operandos(int[] codigo, int pc) {
+		return switch (codigo[pc]) {
+			case FIM -> 0;
+			case LEIA, ESCREVA, EXIBA, SALTO, FALHA -> 1;
+			case CONST, MOV -> 2;
+			case SOMA, SUB, MULT, DIV, POT, SOMAK, SEIGUAL, SEDIF, SEMENOR, SEMENORIG, SEMAIOR, SEMAIORIG -> 3;
+			case ESCOLHA -> 3 + 2 * codigo[pc + 2];
+			case TABELA -> 4 + codigo[pc + 3];
+			default -> throw new IllegalArgumentException("Instrução inválida: " + codigo[pc]);
+		};
+	}
+}
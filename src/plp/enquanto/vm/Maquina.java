@@ -0,0 +1,117 @@
+package plp.enquanto.vm;
+
+import plp.enquanto.Linguagem.Comando;
+import plp.enquanto.Linguagem.ExpPow;
+
+import static plp.enquanto.Linguagem.memoria;
+import static plp.enquanto.Linguagem.scanner;
+import static plp.enquanto.vm.Instrucao.*;
+
+/*
+ * Laço de despacho único sobre o fluxo de instruções, com contador de
+ * programa explícito e registradores em um int[].
+ */
+public final class Maquina implements Comando {
+	private final Codigo codigo;
+
+	public Maquina(Codigo codigo) {
+		this.codigo = codigo;
+	}
+
+	@Override
+	public void execute() {
+		// Os registradores das variáveis são os próprios slots da memória
+		memoria.aloque(codigo.getRegistradores());
+		execute(codigo, memoria.getValores());
+	}
+
+	public static void execute(Codigo codigo, int[] r) {
+		final int[] c = codigo.getInstrucoes();
+		final String[] textos = codigo.getTextos();
+		int pc = 0;
+		while (true) {
+			switch (c[pc]) {
+				case FIM -> {
+					return;
+				}
+				case CONST -> {
+					r[c[pc + 1]] = c[pc + 2];
+					pc += 3;
+				}
+				case MOV -> {
+					r[c[pc + 1]] = r[c[pc + 2]];
+					pc += 3;
+				}
+				case SOMA -> {
+					r[c[pc + 1]] = r[c[pc + 2]] + r[c[pc + 3]];
+					pc += 4;
+				}
+				case SUB -> {
+					r[c[pc + 1]] = r[c[pc + 2]] - r[c[pc + 3]];
+					pc += 4;
+				}
+				case MULT -> {
+					r[c[pc + 1]] = r[c[pc + 2]] * r[c[pc + 3]];
+					pc += 4;
+				}
+				case DIV -> {
+					r[c[pc + 1]] = r[c[pc + 2]] / r[c[pc + 3]];
+					pc += 4;
+				}
+				case POT -> {
+					r[c[pc + 1]] = ExpPow.potencia(r[c[pc + 2]], r[c[pc + 3]]);
+					pc += 4;
+				}
+				case SOMAK -> {
+					r[c[pc + 1]] = r[c[pc + 2]] + c[pc + 3];
+					pc += 4;
+				}
+				case LEIA -> {
+					r[c[pc + 1]] = scanner.nextInt();
+					pc += 2;
+				}
+				case ESCREVA -> {
+					System.out.println(r[c[pc + 1]]);
+					pc += 2;
+				}
+				case EXIBA -> {
+					System.out.println(textos[c[pc + 1]]);
+					pc += 2;
+				}
+				case SALTO -> pc = c[pc + 1];
+				case SEIGUAL -> pc = r[c[pc + 1]] == r[c[pc + 2]] ? c[pc + 3] : pc + 4;
+				case SEDIF -> pc = r[c[pc + 1]] != r[c[pc + 2]] ? c[pc + 3] : pc + 4;
+				case SEMENOR -> pc = r[c[pc + 1]] < r[c[pc + 2]] ? c[pc + 3] : pc + 4;
+				case SEMENORIG -> pc = r[c[pc + 1]] <= r[c[pc + 2]] ? c[pc + 3] : pc + 4;
+				case SEMAIOR -> pc = r[c[pc + 1]] > r[c[pc + 2]] ? c[pc + 3] : pc + 4;
+				case SEMAIORIG -> pc = r[c[pc + 1]] >= r[c[pc + 2]] ? c[pc + 3] : pc + 4;
+				case ESCOLHA -> pc = escolha(c, pc, r[c[pc + 1]]);
+				case TABELA -> {
+					final int i = r[c[pc + 1]] - c[pc + 2];
+					pc = i >= 0 && i < c[pc + 3] ? c[pc + 5 + i] : c[pc + 4];
+				}
+				case FALHA -> throw new IndexOutOfBoundsException(textos[c[pc + 1]]);
+				default -> throw new IllegalStateException("Instrução inválida em " + pc + ": " + c[pc]);
+			}
+		}
+	}
+
+	// Busca binária nos pares (chave, destino) que seguem o cabeçalho
+	private static int escolha(int[] c, int pc, int valor) {
+		int baixo = 0;
+		int alto = c[pc + 2] - 1;
+		final int pares = pc + 4;
+		while (baixo <= alto) {
+			final int meio = (baixo + alto) >>> 1;
+			final int chave = c[pares + 2 * meio];
+			if (chave < valor) {
+				baixo = meio + 1;
+			} else if (chave > valor) {
+				alto = meio - 1;
+			} else {
+				return c[pares + 2 * meio + 1];
+			}
+		}
+		return c[pc + 3];
+	}
+}
@@ -0,0 +1,350 @@
+package plp.enquanto.vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import plp.enquanto.Linguagem.*;
+
+import static plp.enquanto.vm.Instrucao.*;
+
+/*
+ * Traduz a árvore construída por Regras para o fluxo de instruções da
+ * máquina. Variáveis usam o registrador do seu slot; os temporários são
+ * alocados em pilha acima delas e liberados ao fim de cada comando.
+ */
+public final class Tradutor {
+	private int[] codigo = new int[64];
+	private int tamanho;
+	private final List<String> textos = new ArrayList<>();
+	private final Map<String, Integer> indices = new HashMap<>();
+	private int topo;
+	private int registradores;
+
+	private static final class Rotulo {
+		private int posicao = -1;
+		private final List<Integer> pendentes = new ArrayList<>();
+	}
+
+	private Tradutor(int variaveis) {
+		topo = variaveis;
+		registradores = variaveis;
+	}
+
+	public static Codigo traduza(Programa programa) {
+		final Tradutor tradutor = new Tradutor(programa.getVariaveis());
+		programa.getComandos().forEach(tradutor::gere);
+		tradutor.emita(FIM);
+		return new Codigo(Arrays.copyOf(tradutor.codigo, tradutor.tamanho),
+				tradutor.textos.toArray(new String[0]), tradutor.registradores);
+	}
+
+	/*
+	 * Comandos
+	 */
+	private void gere(Comando comando) {
+		final int base = topo;
+		if (comando instanceof Atribuicao a) {
+			atribua(a.getSlots(), a.getExps());
+		} else if (comando instanceof Bloco b) {
+			b.getComandos().forEach(this::gere);
+		} else if (comando instanceof Se se) {
+			final Rotulo fim = new Rotulo();
+			for (int i = 0; i < se.getCondicoes().size(); i++) {
+				final Rotulo proximo = new Rotulo();
+				desvie(se.getCondicoes().get(i), false, proximo);
+				gere(se.getRamos().get(i));
+				salte(fim);
+				marque(proximo);
+			}
+			if (se.getSenao() != null) {
+				gere(se.getSenao());
+			}
+			marque(fim);
+		} else if (comando instanceof Enquanto e) {
+			final Rotulo teste = new Rotulo();
+			final Rotulo fim = new Rotulo();
+			marque(teste);
+			desvie(e.getCondicao(), false, fim);
+			gere(e.getComando());
+			salte(teste);
+			marque(fim);
+		} else if (comando instanceof Repita r) {
+			final int vezes = temporario();
+			final int contador = temporario();
+			final Rotulo teste = new Rotulo();
+			final Rotulo fim = new Rotulo();
+			gere(r.getVezes(), vezes);
+			emita(CONST, contador, 0);
+			marque(teste);
+			desvio(SEMAIORIG, contador, vezes, fim);
+			gere(r.getCorpo());
+			emita(SOMAK, contador, contador, 1);
+			salte(teste);
+			marque(fim);
+		} else if (comando instanceof Para p) {
+			// O contador é separado da variável, como em Para.execute()
+			final int contador = temporario();
+			final Rotulo teste = new Rotulo();
+			final Rotulo fim = new Rotulo();
+			gere(p.getInicio(), contador);
+			marque(teste);
+			desvio(SEMAIOR, contador, valor(p.getFim()), fim);
+			emita(MOV, p.getSlot(), contador);
+			gere(p.getCorpo());
+			emita(SOMAK, contador, contador, 1);
+			salte(teste);
+			marque(fim);
+		} else if (comando instanceof Escolha e) {
+			escolha(e);
+		} else if (comando instanceof Exiba e) {
+			emita(EXIBA, texto(e.getTexto()));
+		} else if (comando instanceof ExibaExp e) {
+			emita(ESCREVA, valor(e.getExp()));
+		} else if (comando instanceof Escreva e) {
+			emita(ESCREVA, valor(e.getExp()));
+		} else if (!(comando instanceof Skip)) {
+			throw new IllegalArgumentException("Comando não suportado: " + comando.getClass().getSimpleName());
+		}
+		topo = base;
+	}
+
+	private void atribua(int[] slots, List<Expressao> exps) {
+		if (slots.length == 1 && exps.size() == 1) {
+			gere(exps.get(0), slots[0]);
+			return;
+		}
+		// Todas as expressões são avaliadas antes de qualquer atribuição
+		final int n = Math.min(slots.length, exps.size());
+		final int[] valores = new int[exps.size()];
+		for (int i = 0; i < valores.length; i++) {
+			valores[i] = temporario();
+			gere(exps.get(i), valores[i]);
+		}
+		for (int i = 0; i < n; i++) {
+			emita(MOV, slots[i], valores[i]);
+		}
+		if (n < slots.length) {
+			// Atribuição incompleta (recuperada pelo parser) falha como em Atribuicao.execute()
+			emita(FALHA, texto("Index " + n + " out of bounds for length " + n));
+		}
+	}
+
+	private void escolha(Escolha e) {
+		final int[] chaves = e.getChaves();
+		final Rotulo outro = new Rotulo();
+		final Rotulo fim = new Rotulo();
+		final Rotulo[] casos = new Rotulo[chaves.length];
+		Arrays.setAll(casos, i -> new Rotulo());
+		if (e instanceof EscolhaDensa d) {
+			final Rotulo[] tabela = new Rotulo[d.getTabela().length];
+			Arrays.fill(tabela, outro);
+			for (int i = 0; i < chaves.length; i++) {
+				tabela[chaves[i] - d.getMenor()] = casos[i];
+			}
+			emita(TABELA, valor(e.getSeletor()), d.getMenor(), tabela.length);
+			referencie(outro);
+			for (Rotulo alvo : tabela) {
+				referencie(alvo);
+			}
+		} else {
+			emita(ESCOLHA, valor(e.getSeletor()), chaves.length);
+			referencie(outro);
+			for (int i = 0; i < chaves.length; i++) {
+				emita(chaves[i]);
+				referencie(casos[i]);
+			}
+		}
+		for (int i = 0; i < chaves.length; i++) {
+			marque(casos[i]);
+			gere(e.getCasos()[i]);
+			salte(fim);
+		}
+		marque(outro);
+		if (e.getOutro() != null) {
+			gere(e.getOutro());
+		}
+		marque(fim);
+	}
+
+	/*
+	 * Expressoes
+	 */
+
+	// Registrador que contém o valor: o da própria variável ou um temporário
+	private int valor(Expressao exp) {
+		if (exp instanceof Id id) {
+			return id.getSlot();
+		}
+		final int destino = temporario();
+		gere(exp, destino);
+		return destino;
+	}
+
+	private void gere(Expressao exp, int destino) {
+		if (exp instanceof Inteiro i) {
+			emita(CONST, destino, i.getValor());
+		} else if (exp instanceof Id id) {
+			if (id.getSlot() != destino) {
+				emita(MOV, destino, id.getSlot());
+			}
+		} else if (exp instanceof Leia) {
+			emita(LEIA, destino);
+		} else if (exp instanceof ExpSoma op && op.getDir() instanceof Inteiro k) {
+			emita(SOMAK, destino, valor(op.getEsq()), k.getValor());
+		} else if (exp instanceof ExpSub op && op.getDir() instanceof Inteiro k) {
+			emita(SOMAK, destino, valor(op.getEsq()), -k.getValor());
+		} else if (exp instanceof ExpSoma op) {
+			binaria(SOMA, op, destino);
+		} else if (exp instanceof ExpSub op) {
+			binaria(SUB, op, destino);
+		} else if (exp instanceof ExpMult op) {
+			binaria(MULT, op, destino);
+		} else if (exp instanceof ExpDiv op) {
+			binaria(DIV, op, destino);
+		} else if (exp instanceof ExpPow op) {
+			binaria(POT, op, destino);
+		} else {
+			throw new IllegalArgumentException("Expressão não suportada: " + exp.getClass().getSimpleName());
+		}
+	}
+
+	private void binaria(int opcode, OpBin<Expressao> op, int destino) {
+		final int base = topo;
+		final int esq = valor(op.getEsq());
+		final int dir = valor(op.getDir());
+		emita(opcode, destino, esq, dir);
+		topo = base;
+	}
+
+	/*
+	 * Condições viram desvios condicionais
+	 */
+	private void desvie(Bool b, boolean quando, Rotulo alvo) {
+		final int base = topo;
+		if (b instanceof Booleano v) {
+			if (v.getValor() == quando) {
+				salte(alvo);
+			}
+		} else if (b instanceof NaoLogico n) {
+			desvie(n.getOperando(), !quando, alvo);
+		} else if (b instanceof ELogico e) {
+			if (quando) {
+				final Rotulo fim = new Rotulo();
+				desvie(e.getEsq(), false, fim);
+				desvie(e.getDir(), true, alvo);
+				marque(fim);
+			} else {
+				desvie(e.getEsq(), false, alvo);
+				desvie(e.getDir(), false, alvo);
+			}
+		} else if (b instanceof OuLogico o) {
+			if (quando) {
+				desvie(o.getEsq(), true, alvo);
+				desvie(o.getDir(), true, alvo);
+			} else {
+				final Rotulo fim = new Rotulo();
+				desvie(o.getEsq(), true, fim);
+				desvie(o.getDir(), false, alvo);
+				marque(fim);
+			}
+		} else if (b instanceof XorLogico x) {
+			final int esq = logico(x.getEsq());
+			final int dir = logico(x.getDir());
+			desvio(quando ? SEDIF : SEIGUAL, esq, dir, alvo);
+		} else if (b instanceof OpBin<?> op) {
+			@SuppressWarnings("unchecked")
+			final OpBin<Expressao> rel = (OpBin<Expressao>) op;
+			final int esq = valor(rel.getEsq());
+			final int dir = valor(rel.getDir());
+			desvio(comparacao(b, quando), esq, dir, alvo);
+		} else {
+			throw new IllegalArgumentException("Condição não suportada: " + b.getClass().getSimpleName());
+		}
+		topo = base;
+	}
+
+	private static int comparacao(Bool b, boolean quando) {
+		if (b instanceof ExpIgual) {
+			return quando ? SEIGUAL : SEDIF;
+		} else if (b instanceof ExpDiferente) {
+			return quando ? SEDIF : SEIGUAL;
+		} else if (b instanceof ExpMenor) {
+			return quando ? SEMENOR : SEMAIORIG;
+		} else if (b instanceof ExpMenorIgual) {
+			return quando ? SEMENORIG : SEMAIOR;
+		} else if (b instanceof ExpMaior) {
+			return quando ? SEMAIOR : SEMENORIG;
+		} else if (b instanceof ExpMaiorIgual) {
+			return quando ? SEMAIORIG : SEMENOR;
+		}
+		throw new IllegalArgumentException("Condição não suportada: " + b.getClass().getSimpleName());
+	}
+
+	// Materializa a condição como 0 ou 1 em um temporário
+	private int logico(Bool b) {
+		final int destino = temporario();
+		final Rotulo falso = new Rotulo();
+		final Rotulo fim = new Rotulo();
+		final int base = topo;
+		desvie(b, false, falso);
+		topo = base;
+		emita(CONST, destino, 1);
+		salte(fim);
+		marque(falso);
+		emita(CONST, destino, 0);
+		marque(fim);
+		return destino;
+	}
+
+	/*
+	 * Emissão
+	 */
+	private int temporario() {
+		final int r = topo++;
+		registradores = Math.max(registradores, topo);
+		return r;
+	}
+
+	private int texto(String texto) {
+		return indices.computeIfAbsent(texto, t -> {
+			textos.add(t);
+			return textos.size() - 1;
+		});
+	}
+
+	private void salte(Rotulo alvo) {
+		emita(SALTO);
+		referencie(alvo);
+	}
+
+	private void desvio(int opcode, int esq, int dir, Rotulo alvo) {
+		emita(opcode, esq, dir);
+		referencie(alvo);
+	}
+
+	private void marque(Rotulo rotulo) {
+		rotulo.posicao = tamanho;
+		for (int lugar : rotulo.pendentes) {
+			codigo[lugar] = tamanho;
+		}
+		rotulo.pendentes.clear();
+	}
+
+	private void referencie(Rotulo alvo) {
+		if (alvo.posicao < 0) {
+			alvo.pendentes.add(tamanho);
+		}
+		emita(alvo.posicao);
+	}
+
+	private void emita(int... valores) {
+		if (tamanho + valores.length > codigo.length) {
+			codigo = Arrays.copyOf(codigo, Math.max(codigo.length * 2, tamanho + valores.length));
+		}
+		System.arraycopy(valores, 0, codigo, tamanho, valores.length);
+		tamanho += valores.length;
+	}
+}
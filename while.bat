@@ -1,2 +1,2 @@
 @echo off
-java -jar while.jar %1
\ No newline at end of file
+java -jar while.jar %*
\ No newline at end of file
@@ -0,0 +1,2 @@
+@echo off
+java -cp while.jar plp.enquanto.Whilec %*
\ No newline at end of file